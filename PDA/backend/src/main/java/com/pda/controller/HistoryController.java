@@ -0,0 +1,78 @@
+package com.pda.controller;
+
+import com.pda.dto.ApiResponse;
+import com.pda.dto.KeysetPage;
+import com.pda.entity.MaintenanceRecord;
+import com.pda.entity.WorkOrder;
+import com.pda.service.MaintenanceRecordService;
+import com.pda.service.WorkOrderService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+/**
+ * 历史记录查询控制器
+ * 移动端无限滚动列表使用游标分页：每页返回 nextToken，下一页带上该令牌继续查询；
+ * 只在需要显示总数时传 withTotal=true
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@RestController
+@RequiredArgsConstructor
+public class HistoryController {
+
+    private final WorkOrderService workOrderService;
+    private final MaintenanceRecordService maintenanceRecordService;
+
+    /**
+     * 游标分页查询派工单（keyword 不为空时按关键词搜索）
+     */
+    @GetMapping("/work-orders/seek")
+    public ApiResponse<KeysetPage<WorkOrder>> seekWorkOrders(
+            @RequestParam(value = "keyword", required = false) String keyword,
+            @RequestParam(value = "orderNo", required = false) String orderNo,
+            @RequestParam(value = "deviceCode", required = false) String deviceCode,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "startTime", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+            @RequestParam(value = "endTime", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime,
+            @RequestParam(value = "pageToken", required = false) String pageToken,
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            @RequestParam(value = "withTotal", defaultValue = "false") boolean withTotal) {
+        if (StringUtils.hasText(keyword)) {
+            return page(() -> workOrderService.searchWorkOrders(keyword, pageToken, size, withTotal));
+        }
+        return page(() -> workOrderService.findWorkOrdersWithConditions(orderNo, deviceCode, status,
+                startTime, endTime, pageToken, size, withTotal));
+    }
+
+    /**
+     * 游标分页搜索维修记录
+     */
+    @GetMapping("/maintenance-records/seek")
+    public ApiResponse<KeysetPage<MaintenanceRecord>> seekMaintenanceRecords(
+            @RequestParam(value = "keyword", defaultValue = "") String keyword,
+            @RequestParam(value = "pageToken", required = false) String pageToken,
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            @RequestParam(value = "withTotal", defaultValue = "false") boolean withTotal) {
+        return page(() -> maintenanceRecordService.searchMaintenanceRecords(keyword, pageToken, size, withTotal));
+    }
+
+    private static <T> ApiResponse<KeysetPage<T>> page(Supplier<KeysetPage<T>> query) {
+        try {
+            return ApiResponse.success(query.get());
+        } catch (IllegalArgumentException e) {
+            // 续页令牌无法解析
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
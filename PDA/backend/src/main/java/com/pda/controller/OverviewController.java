@@ -0,0 +1,103 @@
+package com.pda.controller;
+
+import com.pda.service.DeviceService;
+import com.pda.service.MaintenanceRecordService;
+import com.pda.service.WorkOrderService;
+import com.pda.stream.StateChangeEvent.Kind;
+import com.pda.stream.VersionedResponseCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 概览接口控制器
+ * 移动端和看板轮询的概览数据按所依赖数据类型的版本返回ETag，数据未变化时返回304
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@RestController
+@RequiredArgsConstructor
+public class OverviewController {
+
+    private final DeviceService deviceService;
+    private final WorkOrderService workOrderService;
+    private final MaintenanceRecordService maintenanceRecordService;
+    private final VersionedResponseCache versionedResponseCache;
+
+    /**
+     * 设备状态概览（包含当前派工单产量和维修信息）
+     */
+    @GetMapping("/devices/overview")
+    public ResponseEntity<byte[]> getDevicesOverview(@RequestParam(value = "type", required = false) String deviceType,
+                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (StringUtils.hasText(deviceType) && deviceService.getDeviceTypes().contains(deviceType)) {
+            return versionedResponseCache.respond("devices/overview:" + deviceType, ifNoneMatch,
+                    () -> deviceService.getDevicesStatusOverviewByType(deviceType),
+                    Kind.DEVICE, Kind.WORK_ORDER, Kind.MAINTENANCE);
+        }
+        return versionedResponseCache.respond("devices/overview", ifNoneMatch,
+                deviceService::getAllDevicesStatusOverview,
+                Kind.DEVICE, Kind.WORK_ORDER, Kind.MAINTENANCE);
+    }
+
+    /**
+     * 正在生产的派工单
+     */
+    @GetMapping("/work-orders/working")
+    public ResponseEntity<byte[]> getWorkingOrders(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return versionedResponseCache.respond("work-orders/working", ifNoneMatch,
+                workOrderService::getInProgressWorkOrdersWithDeviceInfo,
+                Kind.WORK_ORDER, Kind.DEVICE);
+    }
+
+    /**
+     * 设备统计
+     */
+    @GetMapping("/statistics/devices")
+    public ResponseEntity<byte[]> getDeviceStatistics(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return versionedResponseCache.respond("statistics/devices", ifNoneMatch, () -> {
+            Map<String, Object> statistics = new LinkedHashMap<>();
+            statistics.put("summary", deviceService.getDeviceStatistics());
+            statistics.put("typeDistribution", deviceService.getDeviceTypeDistribution());
+            statistics.put("statusDistribution", deviceService.getDeviceStatusDistribution());
+            statistics.put("typeStatusStatistics", deviceService.getDeviceTypeStatusStatistics());
+            return statistics;
+        }, Kind.DEVICE);
+    }
+
+    /**
+     * 派工单统计
+     */
+    @GetMapping("/statistics/work-orders")
+    public ResponseEntity<byte[]> getWorkOrderStatistics(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return versionedResponseCache.respond("statistics/work-orders", ifNoneMatch, () -> {
+            Map<String, Object> statistics = new LinkedHashMap<>();
+            statistics.put("summary", workOrderService.getWorkOrderStatistics());
+            statistics.put("statusDistribution", workOrderService.getWorkOrderStatusDistribution());
+            return statistics;
+        }, Kind.WORK_ORDER);
+    }
+
+    /**
+     * 维修统计
+     */
+    @GetMapping("/statistics/maintenance")
+    public ResponseEntity<byte[]> getMaintenanceStatistics(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return versionedResponseCache.respond("statistics/maintenance", ifNoneMatch, () -> {
+            Map<String, Object> statistics = new LinkedHashMap<>();
+            statistics.put("summary", maintenanceRecordService.getMaintenanceStatistics());
+            statistics.put("statusDistribution", maintenanceRecordService.getMaintenanceStatusDistribution());
+            return statistics;
+        }, Kind.MAINTENANCE);
+    }
+}
@@ -0,0 +1,40 @@
+package com.pda.controller;
+
+import com.pda.stream.StateStreamHub;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+/**
+ * 状态推送控制器
+ * 移动端和看板通过 EventSource 订阅设备状态、派工单进度和维修记录的变化，替代轮询完整列表
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@RestController
+@RequestMapping("/stream")
+@RequiredArgsConstructor
+public class StateStreamController {
+
+    private final StateStreamHub stateStreamHub;
+
+    /**
+     * 订阅状态变化
+     * 首个事件为快照（snapshot），之后为 device / work_order / maintenance 增量事件；
+     * 重连时浏览器自动携带 Last-Event-ID 续传，不支持自定义请求头的客户端可使用 lastEventId 参数
+     */
+    @GetMapping(value = "/state", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseBodyEmitter subscribe(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+                                         @RequestParam(value = "lastEventId", required = false) String lastEventId) {
+        try {
+            return stateStreamHub.subscribe(lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+}
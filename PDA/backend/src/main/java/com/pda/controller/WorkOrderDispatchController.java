@@ -0,0 +1,42 @@
+package com.pda.controller;
+
+import com.pda.dto.ApiResponse;
+import com.pda.enums.TransitionResult;
+import com.pda.service.WorkOrderService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 派工单批量派工控制器
+ * 交接班时一次请求批量开始或停止多台设备的派工单，按派工单返回转换结果
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@RestController
+@RequestMapping("/work-orders/batch")
+@RequiredArgsConstructor
+public class WorkOrderDispatchController {
+
+    private final WorkOrderService workOrderService;
+
+    /**
+     * 批量开始生产
+     */
+    @PostMapping("/start")
+    public ApiResponse<Map<Long, TransitionResult>> startProduction(@RequestBody List<Long> workOrderIds) {
+        return ApiResponse.success(workOrderService.startProductionBatch(workOrderIds));
+    }
+
+    /**
+     * 批量停止生产
+     */
+    @PostMapping("/stop")
+    public ApiResponse<Map<Long, TransitionResult>> stopProduction(@RequestBody List<Long> workOrderIds) {
+        return ApiResponse.success(workOrderService.stopProductionBatch(workOrderIds));
+    }
+}
@@ -0,0 +1,50 @@
+package com.pda.controller;
+
+import com.pda.dto.ApiResponse;
+import com.pda.dto.WorkOrderImportResult;
+import com.pda.service.WorkOrderImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.Principal;
+
+/**
+ * 派工单导入控制器
+ * 计划员上传CSV文件批量创建派工单，服务端逐行读取，不把整个文件加载到内存
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@RestController
+@RequiredArgsConstructor
+public class WorkOrderImportController {
+
+    private final WorkOrderImportService workOrderImportService;
+
+    /**
+     * 导入派工单（CSV，UTF-8，第一行为表头）
+     */
+    @PostMapping(value = "/work-orders/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ApiResponse<WorkOrderImportResult> importWorkOrders(@RequestParam("file") MultipartFile file,
+                                                               Principal principal) {
+        if (file.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "导入文件为空");
+        }
+        try (InputStream input = file.getInputStream()) {
+            return ApiResponse.success(workOrderImportService.importCsv(input, principal != null ? principal.getName() : null));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "读取导入文件失败: " + e.getMessage());
+        }
+    }
+}
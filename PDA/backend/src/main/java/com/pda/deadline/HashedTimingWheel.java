@@ -0,0 +1,167 @@
+package com.pda.deadline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 哈希时间轮
+ * 定时项按到期刻度散列到环形槽位中，添加和取消都是 O(1)，每个刻度只检查当前槽位；
+ * 超过一圈的定时项记录剩余圈数，经过槽位时递减。
+ * 非线程安全：添加、取消和推进都必须在同一个线程中调用
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+public final class HashedTimingWheel<T> {
+
+    private final long tickMillis;
+    private final Slot<T>[] slots;
+    private final int mask;
+    private final LongSupplier nanoClock;
+    private final long startNanos;
+
+    /**
+     * 下一个待处理的刻度
+     */
+    private long tick;
+    private int size;
+
+    public HashedTimingWheel(long tickMillis, int wheelSize) {
+        this(tickMillis, wheelSize, System::nanoTime);
+    }
+
+    /**
+     * @param nanoClock 纳秒时钟（测试时可替换）
+     */
+    @SuppressWarnings("unchecked")
+    HashedTimingWheel(long tickMillis, int wheelSize, LongSupplier nanoClock) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("时间轮刻度必须大于0: " + tickMillis);
+        }
+        int slotCount = 1;
+        while (slotCount < wheelSize) {
+            slotCount <<= 1;
+        }
+        this.tickMillis = tickMillis;
+        this.slots = new Slot[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = new Slot<>();
+        }
+        this.mask = slotCount - 1;
+        this.nanoClock = nanoClock;
+        this.startNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * 添加定时项，延迟小于等于0时在下一个刻度到期
+     */
+    public Timeout<T> schedule(T payload, long delayMillis) {
+        long deadline = elapsedMillis() + Math.max(delayMillis, 0);
+        long expiryTick = deadline / tickMillis;
+        Timeout<T> timeout = new Timeout<>(payload, (expiryTick - tick) / slots.length);
+        slots[(int) (Math.max(expiryTick, tick) & mask)].add(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * 取消定时项，已到期或已取消时返回 false
+     */
+    public boolean cancel(Timeout<T> timeout) {
+        if (timeout.slot == null) {
+            return false;
+        }
+        timeout.slot.remove(timeout);
+        size--;
+        return true;
+    }
+
+    /**
+     * 推进到当前时间，返回期间到期的定时项（按到期刻度顺序）
+     */
+    public List<T> advance() {
+        List<T> expired = new ArrayList<>();
+        long elapsed = elapsedMillis();
+        while (tickMillis * (tick + 1) <= elapsed) {
+            Slot<T> slot = slots[(int) (tick & mask)];
+            Timeout<T> timeout = slot.head;
+            while (timeout != null) {
+                Timeout<T> next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    slot.remove(timeout);
+                    size--;
+                    expired.add(timeout.payload);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+            tick++;
+        }
+        return expired;
+    }
+
+    /**
+     * 等待中的定时项数量
+     */
+    public int size() {
+        return size;
+    }
+
+    private long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(nanoClock.getAsLong() - startNanos);
+    }
+
+    /**
+     * 定时项
+     */
+    public static final class Timeout<T> {
+        private final T payload;
+        private long remainingRounds;
+        private Slot<T> slot;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(T payload, long remainingRounds) {
+            this.payload = payload;
+            this.remainingRounds = remainingRounds;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+    }
+
+    /**
+     * 槽位：定时项的双向链表
+     */
+    private static final class Slot<T> {
+        private Timeout<T> head;
+
+        private void add(Timeout<T> timeout) {
+            timeout.slot = this;
+            timeout.next = head;
+            if (head != null) {
+                head.prev = timeout;
+            }
+            head = timeout;
+        }
+
+        private void remove(Timeout<T> timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.slot = null;
+            timeout.prev = null;
+            timeout.next = null;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.pda.deadline;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * 派工单期限事件
+ * 待开始的派工单超过开始期限、或进行中的派工单超过生产时长期限的时刻发布
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Getter
+public class WorkOrderDeadlineEvent {
+
+    /**
+     * 期限类型
+     */
+    public enum Type {
+        OVERDUE("超时未开始", "派工单创建后超过期限仍未开始生产"),
+        LONG_RUNNING("生产超时", "派工单开始生产后超过期限仍未结束");
+
+        private final String displayName;
+        private final String description;
+
+        Type(String displayName, String description) {
+            this.displayName = displayName;
+            this.description = description;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    private final Type type;
+
+    private final Long workOrderId;
+
+    private final String orderNo;
+
+    private final Long deviceId;
+
+    private final String deviceCode;
+
+    /**
+     * 期限时间
+     */
+    private final LocalDateTime deadline;
+
+    public WorkOrderDeadlineEvent(Type type, Long workOrderId, String orderNo, Long deviceId, String deviceCode,
+                                  LocalDateTime deadline) {
+        this.type = type;
+        this.workOrderId = workOrderId;
+        this.orderNo = orderNo;
+        this.deviceId = deviceId;
+        this.deviceCode = deviceCode;
+        this.deadline = deadline;
+    }
+
+    /**
+     * 检查期限是否相同（类型和期限时间都相同）
+     */
+    public boolean isSameDeadline(WorkOrderDeadlineEvent other) {
+        return other != null && type == other.type && Objects.equals(deadline, other.deadline);
+    }
+}
@@ -0,0 +1,250 @@
+package com.pda.deadline;
+
+import com.pda.deadline.WorkOrderDeadlineEvent.Type;
+import com.pda.entity.WorkOrder;
+import com.pda.enums.WorkOrderStatus;
+import com.pda.repository.WorkOrderRepository;
+import com.pda.stream.StateChangeEvent;
+import com.pda.stream.StateChangeEvent.Kind;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 派工单期限监控
+ * 启动时加载待开始和进行中的派工单，按开始期限或生产时长期限放入时间轮；派工单变化后只重新计算变化的派工单。
+ * 期限到达的刻度内发布 {@link WorkOrderDeadlineEvent}，不需要定期扫描派工单表
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Slf4j
+@Component
+public class WorkOrderDeadlineMonitor {
+
+    private final WorkOrderRepository workOrderRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final WorkOrderDeadlineProperties config;
+    private final Map<Type, Counter> exceededCounters = new EnumMap<>(Type.class);
+
+    /**
+     * 等待重新计算期限的派工单（事务提交后写入，监控线程取出）
+     */
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean reloadRequested = new AtomicBoolean();
+
+    /**
+     * 已超过期限且仍处于对应状态的派工单
+     */
+    private final Map<Long, WorkOrderDeadlineEvent> exceeded = new ConcurrentHashMap<>();
+
+    /**
+     * 以下字段只在监控线程中访问
+     */
+    private final Map<Long, HashedTimingWheel.Timeout<WorkOrderDeadlineEvent>> timeouts = new HashMap<>();
+    private HashedTimingWheel<WorkOrderDeadlineEvent> wheel;
+
+    private ScheduledExecutorService executor;
+
+    public WorkOrderDeadlineMonitor(WorkOrderRepository workOrderRepository, ApplicationEventPublisher eventPublisher,
+                                    WorkOrderDeadlineProperties config, MeterRegistry meterRegistry) {
+        this.workOrderRepository = workOrderRepository;
+        this.eventPublisher = eventPublisher;
+        this.config = config;
+        for (Type type : Type.values()) {
+            exceededCounters.put(type, Counter.builder("work_order.deadline.exceeded")
+                    .tag("type", type.name().toLowerCase(Locale.ROOT))
+                    .description("派工单超过期限的次数")
+                    .register(meterRegistry));
+        }
+        Gauge.builder("work_order.deadline.exceeded.active", exceeded, Map::size)
+                .description("当前已超过期限的派工单数量")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        wheel = new HashedTimingWheel<>(config.getTick(), config.getWheelSize());
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "work-order-deadline");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::tick, config.getTick(), config.getTick(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 应用启动完成后加载待开始和进行中的派工单
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reloadRequested.set(true);
+    }
+
+    /**
+     * 派工单变化提交后重新计算期限（由监控线程在下一个刻度处理）
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStateChange(StateChangeEvent event) {
+        if (event.getKind() != Kind.WORK_ORDER) {
+            return;
+        }
+        if (event.isAll()) {
+            reloadRequested.set(true);
+        } else {
+            pending.addAll(event.getIds());
+        }
+    }
+
+    /**
+     * 当前已超过指定期限的派工单ID
+     */
+    public List<Long> getExceededIds(Type type) {
+        List<Long> ids = new ArrayList<>();
+        exceeded.forEach((id, event) -> {
+            if (event.getType() == type) {
+                ids.add(id);
+            }
+        });
+        return ids;
+    }
+
+    /**
+     * 指定期限类型的阈值（小时）
+     */
+    public int getThresholdHours(Type type) {
+        return type == Type.OVERDUE ? config.getOverdueHours() : config.getLongRunningHours();
+    }
+
+    private void tick() {
+        try {
+            if (reloadRequested.getAndSet(false)) {
+                reload();
+            }
+            refreshPending();
+            for (WorkOrderDeadlineEvent event : wheel.advance()) {
+                fire(event);
+            }
+        } catch (Exception e) {
+            log.error("派工单期限检查失败", e);
+        }
+    }
+
+    /**
+     * 重新加载全部待开始和进行中的派工单
+     */
+    private void reload() {
+        for (HashedTimingWheel.Timeout<WorkOrderDeadlineEvent> timeout : timeouts.values()) {
+            wheel.cancel(timeout);
+        }
+        timeouts.clear();
+        exceeded.clear();
+        try {
+            List<WorkOrder> workOrders = new ArrayList<>(workOrderRepository.findByStatus(WorkOrderStatus.CREATED.getCode()));
+            workOrders.addAll(workOrderRepository.findByStatus(WorkOrderStatus.IN_PROGRESS.getCode()));
+            for (WorkOrder workOrder : workOrders) {
+                track(workOrder.getId(), workOrder);
+            }
+            log.info("派工单期限监控已加载，监控派工单数量: {}", timeouts.size() + exceeded.size());
+        } catch (RuntimeException e) {
+            reloadRequested.set(true);
+            throw e;
+        }
+    }
+
+    /**
+     * 重新计算变化的派工单的期限
+     */
+    private void refreshPending() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(pending);
+        pending.removeAll(ids);
+        Map<Long, WorkOrder> workOrders = new HashMap<>();
+        try {
+            for (WorkOrder workOrder : workOrderRepository.findAllById(ids)) {
+                workOrders.put(workOrder.getId(), workOrder);
+            }
+        } catch (RuntimeException e) {
+            pending.addAll(ids);
+            throw e;
+        }
+        for (Long id : ids) {
+            track(id, workOrders.get(id));
+        }
+    }
+
+    /**
+     * 按派工单当前状态设置期限：期限未变化时保持不变（例如产量回写），派工单结束或删除后移除
+     */
+    private void track(Long id, WorkOrder workOrder) {
+        WorkOrderDeadlineEvent deadline = workOrder != null ? deadlineOf(workOrder) : null;
+        HashedTimingWheel.Timeout<WorkOrderDeadlineEvent> timeout = timeouts.get(id);
+        WorkOrderDeadlineEvent current = timeout != null ? timeout.getPayload() : exceeded.get(id);
+        if (deadline != null && deadline.isSameDeadline(current)) {
+            return;
+        }
+        if (timeout != null) {
+            wheel.cancel(timeout);
+            timeouts.remove(id);
+        }
+        exceeded.remove(id);
+        if (deadline != null) {
+            long delay = Duration.between(LocalDateTime.now(), deadline.getDeadline()).toMillis();
+            timeouts.put(id, wheel.schedule(deadline, delay));
+        }
+    }
+
+    private WorkOrderDeadlineEvent deadlineOf(WorkOrder workOrder) {
+        if (WorkOrderStatus.CREATED.getCode().equals(workOrder.getStatus()) && workOrder.getCreatedTime() != null) {
+            return new WorkOrderDeadlineEvent(Type.OVERDUE, workOrder.getId(), workOrder.getOrderNo(),
+                    workOrder.getDeviceId(), workOrder.getDeviceCode(),
+                    workOrder.getCreatedTime().plusHours(config.getOverdueHours()));
+        }
+        if (WorkOrderStatus.IN_PROGRESS.getCode().equals(workOrder.getStatus()) && workOrder.getStartTime() != null) {
+            return new WorkOrderDeadlineEvent(Type.LONG_RUNNING, workOrder.getId(), workOrder.getOrderNo(),
+                    workOrder.getDeviceId(), workOrder.getDeviceCode(),
+                    workOrder.getStartTime().plusHours(config.getLongRunningHours()));
+        }
+        return null;
+    }
+
+    private void fire(WorkOrderDeadlineEvent event) {
+        timeouts.remove(event.getWorkOrderId());
+        exceeded.put(event.getWorkOrderId(), event);
+        exceededCounters.get(event.getType()).increment();
+        log.warn("派工单{} - 派工单: {}，设备: {}，期限: {}", event.getType().getDisplayName(),
+                event.getOrderNo(), event.getDeviceCode(), event.getDeadline());
+        try {
+            eventPublisher.publishEvent(event);
+        } catch (RuntimeException e) {
+            log.error("派工单期限事件处理失败 - 派工单: {}", event.getOrderNo(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.pda.deadline;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 派工单期限监控配置（对应 app.work-order.deadline.*）
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.work-order.deadline")
+public class WorkOrderDeadlineProperties {
+
+    /**
+     * 时间轮刻度（毫秒），即期限到达后最长的检测延迟
+     */
+    private long tick = 1000;
+
+    /**
+     * 时间轮槽位数量（向上取整为2的幂）
+     */
+    private int wheelSize = 512;
+
+    /**
+     * 待开始的派工单超过多少小时未开始视为超时
+     */
+    private int overdueHours = 24;
+
+    /**
+     * 进行中的派工单超过多少小时未结束视为生产超时
+     */
+    private int longRunningHours = 12;
+}
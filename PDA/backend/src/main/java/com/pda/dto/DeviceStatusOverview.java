@@ -0,0 +1,85 @@
+package com.pda.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 设备状态总览行
+ * 由一次关联查询得到设备、进行中的派工单和进行中的维修记录
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeviceStatusOverview {
+
+    private Long id;
+
+    private String deviceCode;
+
+    private String deviceName;
+
+    private String deviceType;
+
+    private String status;
+
+    private String plcAddress;
+
+    /**
+     * 进行中的派工单号（设备生产中时）
+     */
+    private String workOrderCode;
+
+    private Integer plannedQuantity;
+
+    private Integer actualQuantity;
+
+    private LocalDateTime startTime;
+
+    /**
+     * 进行中的维修记录ID（非空列，用于判断是否关联到维修记录；设备维修中时）
+     */
+    private Long maintenanceRecordId;
+
+    /**
+     * 进行中的维修记录故障描述
+     */
+    private String maintenanceDescription;
+
+    private LocalDateTime reportTime;
+
+    private String maintainer;
+
+    /**
+     * 转换为总览接口的Map结构（只包含与设备状态对应的业务信息）
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> overview = new HashMap<>();
+        overview.put("id", id);
+        overview.put("deviceCode", deviceCode);
+        overview.put("deviceName", deviceName);
+        overview.put("deviceType", deviceType);
+        overview.put("status", status);
+        overview.put("plcAddress", plcAddress);
+        if (workOrderCode != null) {
+            overview.put("workOrderCode", workOrderCode);
+            overview.put("plannedQuantity", plannedQuantity);
+            overview.put("actualQuantity", actualQuantity);
+            overview.put("startTime", startTime);
+        }
+        if (maintenanceRecordId != null) {
+            overview.put("maintenanceDescription", maintenanceDescription);
+            overview.put("reportTime", reportTime);
+            overview.put("maintainer", maintainer);
+        }
+        return overview;
+    }
+}
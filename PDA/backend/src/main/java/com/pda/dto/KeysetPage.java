@@ -0,0 +1,140 @@
+package com.pda.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * 游标分页结果
+ * 按（排序键, ID）定位下一页，每页查询不使用偏移量，翻到多深都只读取一页数据；
+ * nextToken 为不透明的续页令牌，total 只在请求统计总数时返回
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KeysetPage<T> {
+
+    public static final int DEFAULT_SIZE = 20;
+
+    public static final int MAX_SIZE = 100;
+
+    private List<T> content;
+
+    /**
+     * 下一页令牌（没有下一页时为空）
+     */
+    private String nextToken;
+
+    private boolean hasNext;
+
+    /**
+     * 符合条件的总数（未请求统计时为空）
+     */
+    private Long total;
+
+    /**
+     * 限制每页数量
+     */
+    public static int limit(int size) {
+        return size <= 0 ? DEFAULT_SIZE : Math.min(size, MAX_SIZE);
+    }
+
+    /**
+     * 查询参数：多取一条用于判断是否还有下一页
+     */
+    public static Pageable probe(int size) {
+        return PageRequest.of(0, limit(size) + 1);
+    }
+
+    /**
+     * 根据多取一条的查询结果构建分页结果，最后一条记录作为下一页的游标
+     */
+    public static <T> KeysetPage<T> of(List<T> rows, int size, Function<T, Cursor> cursorOf, Long total) {
+        int limit = limit(size);
+        if (rows.size() <= limit) {
+            return new KeysetPage<>(rows, null, false, total);
+        }
+        List<T> content = new ArrayList<>(rows.subList(0, limit));
+        return new KeysetPage<>(content, cursorOf.apply(content.get(limit - 1)).encode(), true, total);
+    }
+
+    /**
+     * 续页游标：上一页最后一条记录的（排序键, ID），排序键必须是非空列
+     */
+    @Getter
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class Cursor {
+
+        private final String key;
+
+        private final Long id;
+
+        public static Cursor of(LocalDateTime key, Long id) {
+            return new Cursor(Objects.requireNonNull(key, "游标排序键不能为空").toString(), id);
+        }
+
+        public static Cursor of(LocalDate key, Long id) {
+            return new Cursor(Objects.requireNonNull(key, "游标排序键不能为空").toString(), id);
+        }
+
+        /**
+         * 解析续页令牌，令牌为空时返回 null（第一页）
+         */
+        public static Cursor decode(String token) {
+            if (!StringUtils.hasText(token)) {
+                return null;
+            }
+            try {
+                String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                int separator = value.lastIndexOf(',');
+                if (separator <= 0) {
+                    throw new IllegalArgumentException("无效的分页令牌: " + token);
+                }
+                return new Cursor(value.substring(0, separator), Long.valueOf(value.substring(separator + 1)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("无效的分页令牌: " + token, e);
+            }
+        }
+
+        public String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((key + "," + id).getBytes(StandardCharsets.UTF_8));
+        }
+
+        public LocalDateTime getDateTime() {
+            try {
+                return LocalDateTime.parse(key);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("无效的分页令牌: " + encode(), e);
+            }
+        }
+
+        public LocalDate getDate() {
+            try {
+                return LocalDate.parse(key);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("无效的分页令牌: " + encode(), e);
+            }
+        }
+    }
+}
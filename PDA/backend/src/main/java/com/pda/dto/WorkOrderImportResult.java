@@ -0,0 +1,66 @@
+package com.pda.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 派工单导入结果
+ * 汇总读取、导入和失败的行数，并按行号列出失败原因（最多保留 {@link #MAX_ERRORS} 条）
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Data
+public class WorkOrderImportResult {
+
+    public static final int MAX_ERRORS = 1000;
+
+    /**
+     * 读取的数据行数（不含表头和空行）
+     */
+    private int totalRows;
+
+    private int importedRows;
+
+    private int failedRows;
+
+    private List<RowError> errors = new ArrayList<>();
+
+    /**
+     * 失败原因是否超过保留数量被截断
+     */
+    private boolean errorsTruncated;
+
+    /**
+     * 记录一行失败
+     */
+    public void addError(int line, String message) {
+        failedRows++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new RowError(line, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    /**
+     * 行错误
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+
+        /**
+         * 文件中的行号（表头为第1行）
+         */
+        private int line;
+
+        private String message;
+    }
+}
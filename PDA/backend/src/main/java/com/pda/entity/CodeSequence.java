@@ -0,0 +1,39 @@
+package com.pda.entity;
+
+import lombok.Data;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 编号序列实体类
+ * 每个序列（如某天的派工单号）保存下一个可分配的号段起点，应用节点按号段批量领取
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Data
+@Entity
+@Table(name = "code_sequences")
+public class CodeSequence {
+
+    /**
+     * 序列键（名称 + 范围，如 WO:20250108）
+     */
+    @Id
+    @Column(name = "sequence_key", length = 50)
+    private String sequenceKey;
+
+    /**
+     * 下一个未分配的序号
+     */
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+
+    /**
+     * 更新时间
+     */
+    @Column(name = "updated_time", nullable = false)
+    private LocalDateTime updatedTime;
+}
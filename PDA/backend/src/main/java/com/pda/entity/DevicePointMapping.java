@@ -58,6 +58,12 @@ public class DevicePointMapping extends BaseEntity {
     @Column(name = "plc_address", nullable = false, length = 50)
     private String plcAddress;
 
+    /**
+     * 所属PLC配置ID（为空时使用默认PLC配置）
+     */
+    @Column(name = "plc_config_id")
+    private Long plcConfigId;
+
     /**
      * 数据类型（BOOL, INT, DINT, REAL等）
      */
@@ -245,6 +251,14 @@ public class DevicePointMapping extends BaseEntity {
         this.plcAddress = plcAddress;
     }
 
+    public Long getPlcConfigId() {
+        return plcConfigId;
+    }
+
+    public void setPlcConfigId(Long plcConfigId) {
+        this.plcConfigId = plcConfigId;
+    }
+
     public String getDataType() {
         return dataType;
     }
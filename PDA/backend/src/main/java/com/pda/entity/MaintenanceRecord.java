@@ -1,5 +1,6 @@
 package com.pda.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import org.hibernate.annotations.CreationTimestamp;
@@ -26,7 +27,8 @@ import java.time.temporal.ChronoUnit;
     @Index(name = "idx_device_id", columnList = "device_id"),
     @Index(name = "idx_status", columnList = "status"),
     @Index(name = "idx_report_time", columnList = "report_time"),
-    @Index(name = "idx_repair_time", columnList = "repair_time")
+    @Index(name = "idx_repair_time", columnList = "repair_time"),
+    @Index(name = "idx_created_time", columnList = "created_time")
 })
 public class MaintenanceRecord {
 
@@ -117,8 +119,9 @@ public class MaintenanceRecord {
     private LocalDateTime updatedTime;
 
     /**
-     * 设备关联（懒加载）
+     * 设备关联（懒加载，不参与JSON序列化：响应中使用 deviceId / deviceCode）
      */
+    @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "device_id", insertable = false, updatable = false)
     private Device device;
@@ -0,0 +1,89 @@
+package com.pda.entity;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * PLC采样记录实体类
+ * 只保存通过变化检测（死区/心跳）的采样值
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Entity
+@Table(name = "plc_samples", indexes = {
+    @Index(name = "idx_sample_device_time", columnList = "device_id, sample_time"),
+    @Index(name = "idx_sample_time", columnList = "sample_time")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uk_sample_spool_record", columnNames = {"spool_id", "spool_offset"})
+})
+public class PlcSample {
+
+    /**
+     * 采样记录ID
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    /**
+     * 点位映射ID（由设备PLC地址生成的点位为空）
+     */
+    @Column(name = "mapping_id")
+    private Long mappingId;
+
+    /**
+     * 设备ID
+     */
+    @Column(name = "device_id", nullable = false)
+    private Long deviceId;
+
+    /**
+     * 设备编号
+     */
+    @Column(name = "device_code", length = 20)
+    private String deviceCode;
+
+    /**
+     * 点位类型
+     */
+    @Column(name = "point_type", length = 20)
+    private String pointType;
+
+    /**
+     * PLC地址
+     */
+    @Column(name = "plc_address", length = 20)
+    private String plcAddress;
+
+    /**
+     * 采样值
+     */
+    @Column(name = "sample_value", nullable = false)
+    private Integer sampleValue;
+
+    /**
+     * 采样时间
+     */
+    @Column(name = "sample_time", nullable = false)
+    private LocalDateTime sampleTime;
+
+    /**
+     * 本地预写日志标识（预写日志目录重建后生成新的标识，与偏移量一起用于重放去重）
+     */
+    @Column(name = "spool_id", length = 36)
+    private String spoolId;
+
+    /**
+     * 本地预写日志中的偏移量（用于重放去重，未经过预写日志的采样为空）
+     */
+    @Column(name = "spool_offset")
+    private Long spoolOffset;
+}
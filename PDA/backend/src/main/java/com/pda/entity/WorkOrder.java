@@ -1,5 +1,6 @@
 package com.pda.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import org.hibernate.annotations.CreationTimestamp;
@@ -28,7 +29,8 @@ import java.time.temporal.ChronoUnit;
     @Index(name = "idx_device_id", columnList = "device_id"),
     @Index(name = "idx_status", columnList = "status"),
     @Index(name = "idx_start_time", columnList = "start_time"),
-    @Index(name = "idx_end_time", columnList = "end_time")
+    @Index(name = "idx_end_time", columnList = "end_time"),
+    @Index(name = "idx_created_time", columnList = "created_time")
 })
 public class WorkOrder {
 
@@ -76,6 +78,12 @@ public class WorkOrder {
     @Column(name = "actual_quantity")
     private Integer actualQuantity = 0;
 
+    /**
+     * PLC计数基准（最近一次回写产量时设备计数点位的原始值，重启后从该值继续累计）
+     */
+    @Column(name = "counter_raw")
+    private Long counterRaw;
+
     /**
      * 开始生产时间
      */
@@ -115,8 +123,9 @@ public class WorkOrder {
     private LocalDateTime updatedTime;
 
     /**
-     * 设备关联（懒加载）
+     * 设备关联（懒加载，不参与JSON序列化：响应中使用 deviceId / deviceCode）
      */
+    @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "device_id", insertable = false, updatable = false)
     private Device device;
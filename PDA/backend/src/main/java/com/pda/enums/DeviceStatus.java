@@ -1,5 +1,7 @@
 package com.pda.enums;
 
+import java.util.Locale;
+
 /**
  * 设备状态枚举
  */
@@ -68,6 +70,25 @@ public enum DeviceStatus {
         throw new IllegalArgumentException("未知的设备状态: " + displayName);
     }
 
+    /**
+     * 根据状态编码（设备表中保存的小写编码，如 idle）获取状态
+     */
+    public static DeviceStatus fromCode(String code) {
+        for (DeviceStatus status : values()) {
+            if (status.getCode().equals(code)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("未知的设备状态: " + code);
+    }
+
+    /**
+     * 获取状态编码
+     */
+    public String getCode() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
     /**
      * 检查设备是否可用于生产
      */
@@ -118,7 +139,7 @@ public enum DeviceStatus {
             case IDLE:
                 return new DeviceStatus[]{WORKING, MAINTENANCE, FAULT, OFFLINE, DISABLED};
             case WORKING:
-                return new DeviceStatus[]{IDLE, FAULT, OFFLINE};
+                return new DeviceStatus[]{IDLE, MAINTENANCE, FAULT, OFFLINE};
             case MAINTENANCE:
                 return new DeviceStatus[]{IDLE, FAULT, OFFLINE};
             case FAULT:
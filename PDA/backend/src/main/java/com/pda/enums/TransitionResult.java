@@ -0,0 +1,49 @@
+package com.pda.enums;
+
+/**
+ * 状态转换结果枚举
+ */
+public enum TransitionResult {
+    /**
+     * 已转换 - 条件更新成功
+     */
+    APPLIED("已转换", "状态已转换为目标状态"),
+
+    /**
+     * 冲突 - 当前状态已被其他操作修改
+     */
+    CONFLICT("冲突", "当前状态与预期不一致，已被其他操作修改"),
+
+    /**
+     * 非法转换 - 状态转换表不允许该转换
+     */
+    INVALID("非法转换", "不允许从当前状态转换到目标状态"),
+
+    /**
+     * 不存在 - 目标对象不存在
+     */
+    NOT_FOUND("不存在", "目标对象不存在");
+
+    private final String displayName;
+    private final String description;
+
+    TransitionResult(String displayName, String description) {
+        this.displayName = displayName;
+        this.description = description;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * 检查转换是否成功
+     */
+    public boolean isApplied() {
+        return this == APPLIED;
+    }
+}
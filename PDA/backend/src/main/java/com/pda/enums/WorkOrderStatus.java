@@ -1,5 +1,8 @@
 package com.pda.enums;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * 派工单状态枚举
  */
@@ -7,43 +10,49 @@ public enum WorkOrderStatus {
     /**
      * 已创建 - 派工单已创建，等待开始生产
      */
-    CREATED("已创建", "派工单已创建，等待开始生产", "#6c757d"),
+    CREATED("pending", "已创建", "派工单已创建，等待开始生产", "#6c757d"),
     
     /**
      * 进行中 - 派工单正在执行生产
      */
-    IN_PROGRESS("进行中", "派工单正在执行生产任务", "#007bff"),
+    IN_PROGRESS("in_progress", "进行中", "派工单正在执行生产任务", "#007bff"),
     
     /**
      * 已暂停 - 派工单生产被暂停
      */
-    PAUSED("已暂停", "派工单生产被暂停", "#ffc107"),
+    PAUSED("paused", "已暂停", "派工单生产被暂停", "#ffc107"),
     
     /**
      * 已完成 - 派工单生产已完成
      */
-    COMPLETED("已完成", "派工单生产已完成", "#28a745"),
+    COMPLETED("completed", "已完成", "派工单生产已完成", "#28a745"),
     
     /**
      * 已取消 - 派工单被取消
      */
-    CANCELLED("已取消", "派工单被取消，不再执行", "#dc3545"),
+    CANCELLED("cancelled", "已取消", "派工单被取消，不再执行", "#dc3545"),
     
     /**
      * 异常终止 - 派工单因异常而终止
      */
-    TERMINATED("异常终止", "派工单因设备故障或其他异常而终止", "#dc3545");
+    TERMINATED("terminated", "异常终止", "派工单因设备故障或其他异常而终止", "#dc3545");
 
+    private final String code; // 数据库中保存的状态值
     private final String displayName;
     private final String description;
     private final String color; // 用于前端显示的颜色
 
-    WorkOrderStatus(String displayName, String description, String color) {
+    WorkOrderStatus(String code, String displayName, String description, String color) {
+        this.code = code;
         this.displayName = displayName;
         this.description = description;
         this.color = color;
     }
 
+    public String getCode() {
+        return code;
+    }
+
     public String getDisplayName() {
         return displayName;
     }
@@ -68,6 +77,18 @@ public enum WorkOrderStatus {
         throw new IllegalArgumentException("未知的派工单状态: " + displayName);
     }
 
+    /**
+     * 根据数据库状态值获取状态
+     */
+    public static WorkOrderStatus fromCode(String code) {
+        for (WorkOrderStatus status : values()) {
+            if (status.code.equals(code)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("未知的派工单状态: " + code);
+    }
+
     /**
      * 检查是否为活跃状态（正在进行或暂停）
      */
@@ -150,6 +171,19 @@ public enum WorkOrderStatus {
         return false;
     }
 
+    /**
+     * 获取可以转换到当前状态的状态值列表（用于条件更新的 WHERE status IN 条件）
+     */
+    public List<String> getSourceCodes() {
+        List<String> codes = new ArrayList<>();
+        for (WorkOrderStatus status : values()) {
+            if (status.canTransitionTo(this)) {
+                codes.add(status.code);
+            }
+        }
+        return codes;
+    }
+
     /**
      * 获取状态优先级（用于排序，数字越小优先级越高）
      */
@@ -0,0 +1,161 @@
+package com.pda.plc;
+
+import com.digitalpetri.modbus.codec.Modbus;
+import com.digitalpetri.modbus.master.ModbusTcpMaster;
+import com.digitalpetri.modbus.master.ModbusTcpMasterConfig;
+import com.pda.entity.PlcConfig;
+import com.pda.repository.PlcConfigRepository;
+import io.netty.channel.ChannelOption;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Modbus TCP连接池
+ * 按PLC配置ID保持长连接，每个连接独立的事务窗口、超时和重试，单个PLC变慢不会影响其他PLC的读取
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Slf4j
+@Component
+public class ModbusConnectionPool {
+
+    /**
+     * 默认PLC在连接池中的键
+     */
+    static final Long DEFAULT_KEY = 0L;
+
+    private final PlcConfigRepository plcConfigRepository;
+    private final PlcProperties plcProperties;
+
+    private final Map<Long, PlcConnection> connections = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService retryScheduler;
+
+    public ModbusConnectionPool(PlcConfigRepository plcConfigRepository, PlcProperties plcProperties) {
+        this.plcConfigRepository = plcConfigRepository;
+        this.plcProperties = plcProperties;
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "plc-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 异步读取保持寄存器，返回无符号16位寄存器值
+     */
+    public CompletableFuture<int[]> readHoldingRegisters(Long plcConfigId, int address, int quantity) {
+        PlcConnection connection;
+        try {
+            connection = getConnection(plcConfigId);
+        } catch (RuntimeException e) {
+            CompletableFuture<int[]> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        return connection.readHoldingRegisters(address, quantity);
+    }
+
+    /**
+     * 获取（必要时创建）PLC连接
+     */
+    PlcConnection getConnection(Long plcConfigId) {
+        Long key = plcConfigId != null ? plcConfigId : DEFAULT_KEY;
+        return connections.computeIfAbsent(key, k -> createConnection(resolveConfig(plcConfigId)));
+    }
+
+    /**
+     * 解析PLC配置：指定ID优先，否则使用默认配置，最后回退到 app.plc 配置
+     */
+    PlcConfig resolveConfig(Long plcConfigId) {
+        if (plcConfigId != null) {
+            PlcConfig config = plcConfigRepository.findById(plcConfigId)
+                    .orElseThrow(() -> new IllegalArgumentException("PLC配置不存在: " + plcConfigId));
+            if (!config.isAvailable()) {
+                throw new IllegalStateException("PLC配置已禁用: " + config.getConfigName());
+            }
+            return config;
+        }
+        return plcConfigRepository.findDefaultConfig().orElseGet(() -> {
+            PlcConfig config = PlcConfig.createDefaultConfig();
+            config.setPlcIp(plcProperties.getDefaultIp());
+            config.setPlcPort(plcProperties.getDefaultPort());
+            config.setConnectTimeout(plcProperties.getConnectionTimeout());
+            config.setReadTimeout(plcProperties.getReadTimeout());
+            config.setRetryCount(plcProperties.getRetryCount());
+            config.setRetryInterval(plcProperties.getRetryInterval());
+            return config;
+        });
+    }
+
+    private PlcConnection createConnection(PlcConfig config) {
+        log.info("创建PLC连接: {}，事务窗口: {}", config.getTestConnectionInfo(), plcProperties.getMaxInFlight());
+        return openConnection(config, plcProperties, retryScheduler);
+    }
+
+    /**
+     * 按PLC配置和 app.plc 参数创建会话（负载测试工具也通过这里创建，保证与生产采集使用相同的连接参数）
+     */
+    static PlcConnection openConnection(PlcConfig config, PlcProperties plcProperties,
+                                        ScheduledExecutorService retryScheduler) {
+        int connectTimeout = config.getConnectTimeout();
+        ModbusTcpMasterConfig masterConfig = new ModbusTcpMasterConfig.Builder(config.getPlcIp())
+                .setPort(config.getPlcPort())
+                .setTimeout(Duration.ofMillis(config.getReadTimeout()))
+                .setInstanceId(config.getConfigName())
+                .setBootstrapConsumer(bootstrap ->
+                        bootstrap.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeout))
+                .build();
+        return new PlcConnection(config, new ModbusTcpMaster(masterConfig), plcProperties.getUnitId(),
+                plcProperties.getMaxInFlight(), plcProperties.getMaxQueuedRequests(), retryScheduler);
+    }
+
+    /**
+     * 关闭指定PLC的连接（配置变更后调用，下次读取时按新配置重建）
+     */
+    public void evict(Long plcConfigId) {
+        PlcConnection connection = connections.remove(plcConfigId != null ? plcConfigId : DEFAULT_KEY);
+        if (connection != null) {
+            connection.close();
+            log.info("PLC连接已关闭: {}", connection.getConfig().getConnectionAddress());
+        }
+    }
+
+    /**
+     * 获取连接池状态
+     */
+    public List<Map<String, Object>> getConnectionStatus() {
+        List<Map<String, Object>> status = new ArrayList<>();
+        connections.forEach((key, connection) -> {
+            Map<String, Object> item = new HashMap<>();
+            item.put("plcConfigId", DEFAULT_KEY.equals(key) ? null : key);
+            item.put("address", connection.getConfig().getConnectionAddress());
+            item.put("inFlight", connection.getInFlight());
+            item.put("queued", connection.getQueued());
+            item.put("completed", connection.getCompletedCount());
+            item.put("failed", connection.getFailedCount());
+            item.put("retries", connection.getRetryCount());
+            status.add(item);
+        });
+        return status;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryScheduler.shutdownNow();
+        connections.values().forEach(PlcConnection::close);
+        connections.clear();
+        Modbus.releaseSharedResources();
+        log.info("PLC连接池已关闭");
+    }
+}
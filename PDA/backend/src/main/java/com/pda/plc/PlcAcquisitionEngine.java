@@ -0,0 +1,185 @@
+package com.pda.plc;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+
+/**
+ * PLC数据采集引擎
+ * 按读取计划合并相邻寄存器，同时发出所有异步Modbus读取，一个扫描周期内刷新全部设备计数；
+ * 每个读取结果同时写入点位实时值表
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PlcAcquisitionEngine {
+
+    private final PlcPointCatalog plcPointCatalog;
+    private final ModbusConnectionPool modbusConnectionPool;
+    private final PlcReadPlanner plcReadPlanner;
+    private final PlcPointValueTable plcPointValueTable;
+    private final PlcProperties plcProperties;
+
+    private volatile PlanCache dataPlanCache;
+
+    /**
+     * 异步读取单个点位的值
+     */
+    public CompletableFuture<Integer> readPoint(PlcPoint point) {
+        return modbusConnectionPool
+                .readHoldingRegisters(point.getPlcConfigId(), point.getRegister(), point.getRegisterCount())
+                .handle((registers, error) -> {
+                    long now = System.currentTimeMillis();
+                    if (error != null) {
+                        plcPointValueTable.markBad(point.getIndex(), now);
+                        throw error instanceof CompletionException
+                                ? (CompletionException) error : new CompletionException(error);
+                    }
+                    int value = point.decode(registers, 0);
+                    plcPointValueTable.update(point.getIndex(), value, now);
+                    return value;
+                });
+    }
+
+    /**
+     * 异步读取指定设备的计数值（设备没有数据点位时返回空）
+     */
+    public CompletableFuture<Optional<Integer>> readDeviceCounterAsync(Long deviceId) {
+        return plcPointCatalog.getDataPoint(deviceId)
+                .map(point -> readPoint(point).thenApply(Optional::of))
+                .orElseGet(() -> CompletableFuture.completedFuture(Optional.empty()));
+    }
+
+    /**
+     * 异步读取所有设备的计数值，读取失败的设备不包含在结果中
+     */
+    public CompletableFuture<Map<Long, Integer>> readDeviceCountersAsync() {
+        Map<Long, Integer> counters = new ConcurrentHashMap<>();
+        return collectDeviceCounters(counters).thenApply(v -> counters);
+    }
+
+    private CompletableFuture<Void> collectDeviceCounters(Map<Long, Integer> counters) {
+        return readBlocks(planDataReads(), (point, value) -> counters.put(point.getDeviceId(), value));
+    }
+
+    /**
+     * 异步读取一组点位，每个读取成功的点位回调一次（回调在通信线程中执行）
+     */
+    public CompletableFuture<Void> readPoints(Collection<PlcPoint> points, BiConsumer<PlcPoint, Integer> consumer) {
+        if (points.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return readBlocks(plcReadPlanner.plan(points), consumer);
+    }
+
+    private CompletableFuture<Void> readBlocks(List<ReadBlock> blocks, BiConsumer<PlcPoint, Integer> consumer) {
+        CompletableFuture<?>[] reads = blocks.stream()
+                .map(block -> readBlock(block)
+                        .thenAccept(registers -> {
+                            long now = System.currentTimeMillis();
+                            for (PlcPoint point : block.getPoints()) {
+                                int value = point.decode(registers, block.offsetOf(point));
+                                plcPointValueTable.update(point.getIndex(), value, now);
+                                consumer.accept(point, value);
+                            }
+                        })
+                        .exceptionally(e -> {
+                            long now = System.currentTimeMillis();
+                            block.getPoints().forEach(point -> plcPointValueTable.markBad(point.getIndex(), now));
+                            log.warn("读取PLC寄存器失败 - 范围: {}, 原因: {}", block, e.getMessage());
+                            return null;
+                        }))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(reads);
+    }
+
+    /**
+     * 异步执行一次合并读取
+     */
+    public CompletableFuture<int[]> readBlock(ReadBlock block) {
+        return modbusConnectionPool.readHoldingRegisters(
+                block.getPlcConfigId(), block.getStartRegister(), block.getRegisterCount());
+    }
+
+    /**
+     * 获取数据点位的读取计划（点位目录未变化时复用上次结果）
+     */
+    List<ReadBlock> planDataReads() {
+        List<PlcPoint> dataPoints = plcPointCatalog.getDataPoints();
+        PlanCache cache = dataPlanCache;
+        if (cache == null || !cache.points.equals(dataPoints)) {
+            cache = new PlanCache(dataPoints, plcReadPlanner.plan(dataPoints));
+            dataPlanCache = cache;
+            log.info("PLC读取计划已更新，点位数量: {}，读取请求数量: {}，范围: {}",
+                    dataPoints.size(), cache.blocks.size(), cache.blocks);
+        }
+        return cache.blocks;
+    }
+
+    private static final class PlanCache {
+        private final List<PlcPoint> points;
+        private final List<ReadBlock> blocks;
+
+        private PlanCache(List<PlcPoint> points, List<ReadBlock> blocks) {
+            this.points = points;
+            this.blocks = blocks;
+        }
+    }
+
+    /**
+     * 读取指定设备的计数值，超过同步超时时间返回空
+     */
+    public Optional<Integer> readDeviceCounter(Long deviceId) {
+        return await(readDeviceCounterAsync(deviceId), Optional.empty());
+    }
+
+    /**
+     * 读取所有设备的计数值，超过同步超时时间返回已完成部分
+     */
+    public Map<Long, Integer> readDeviceCounters() {
+        long startTime = System.nanoTime();
+        Map<Long, Integer> counters = new ConcurrentHashMap<>();
+        await(collectDeviceCounters(counters), null);
+        log.debug("PLC扫描完成，设备数量: {}，耗时: {}ms", counters.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        return counters;
+    }
+
+    /**
+     * 检查是否启用PLC采集
+     */
+    public boolean isEnabled() {
+        return plcProperties.isEnabled();
+    }
+
+    <T> T await(CompletableFuture<T> future, T fallback) {
+        try {
+            return future.get(plcProperties.getSyncTimeout(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("等待PLC读取超时（{}ms）", plcProperties.getSyncTimeout());
+            return fallback;
+        } catch (ExecutionException e) {
+            log.warn("PLC读取失败: {}", e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            return fallback;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.pda.plc;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * PLC地址解析工具
+ * D寄存器地址（如 D802）直接对应Modbus保持寄存器地址 802
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+public final class PlcAddress {
+
+    private static final Pattern D_REGISTER_PATTERN = Pattern.compile("^D(\\d{1,5})$");
+
+    private PlcAddress() {
+    }
+
+    /**
+     * 解析D寄存器地址，返回Modbus保持寄存器地址
+     */
+    public static int parseRegister(String plcAddress) {
+        if (plcAddress == null) {
+            throw new IllegalArgumentException("PLC地址不能为空");
+        }
+        Matcher matcher = D_REGISTER_PATTERN.matcher(plcAddress.trim().toUpperCase());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("不支持的PLC地址: " + plcAddress);
+        }
+        int register = Integer.parseInt(matcher.group(1));
+        if (register > 65535) {
+            throw new IllegalArgumentException("PLC地址超出范围: " + plcAddress);
+        }
+        return register;
+    }
+
+    /**
+     * 检查是否为可解析的D寄存器地址
+     */
+    public static boolean isRegisterAddress(String plcAddress) {
+        return plcAddress != null && D_REGISTER_PATTERN.matcher(plcAddress.trim().toUpperCase()).matches();
+    }
+
+    /**
+     * 根据数据类型获取占用的寄存器数量
+     */
+    public static int registerCount(String dataType) {
+        if ("DINT".equalsIgnoreCase(dataType) || "REAL".equalsIgnoreCase(dataType)) {
+            return 2;
+        }
+        return 1;
+    }
+}
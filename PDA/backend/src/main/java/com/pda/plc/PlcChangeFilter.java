@@ -0,0 +1,72 @@
+package com.pda.plc;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * PLC采样变化检测
+ * 只有变化超过死区（绝对值且百分比）的采样才会继续向下游传递；
+ * 点位长时间没有变化时，超过最大静默时间后发送一次心跳采样
+ * 每个点位只由其所属PLC的通信线程调用
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Component
+public class PlcChangeFilter {
+
+    private final PlcProperties.ChangeFilter config;
+
+    /**
+     * 最近一次发布的值（按点位序号索引）
+     */
+    private final int[] publishedValues;
+
+    /**
+     * 最近一次发布的时间（0表示从未发布）
+     */
+    private final long[] publishedTimes;
+
+    public PlcChangeFilter(PlcProperties plcProperties) {
+        this.config = plcProperties.getChangeFilter();
+        this.publishedValues = new int[plcProperties.getMaxPoints()];
+        this.publishedTimes = new long[plcProperties.getMaxPoints()];
+    }
+
+    /**
+     * 判断采样是否需要发布，需要发布时同时记录为最近一次发布值
+     */
+    public boolean accept(PlcPoint point, int value, long timestamp) {
+        int index = point.getIndex();
+        long publishedAt = publishedTimes[index];
+        boolean publish = publishedAt == 0
+                || exceedsDeadband(publishedValues[index], value)
+                || timestamp - publishedAt >= config.getMaxSilence();
+        if (publish) {
+            publishedValues[index] = value;
+            publishedTimes[index] = timestamp;
+        }
+        return publish;
+    }
+
+    /**
+     * 检查变化量是否超过死区
+     */
+    boolean exceedsDeadband(int previous, int current) {
+        long delta = Math.abs((long) current - previous);
+        if (delta == 0 || delta <= config.getAbsoluteDeadband()) {
+            return false;
+        }
+        if (config.getPercentDeadband() > 0 && previous != 0) {
+            return delta * 100.0 / Math.abs((long) previous) > config.getPercentDeadband();
+        }
+        return true;
+    }
+
+    /**
+     * 重置点位的发布状态（下一次采样必定发布）
+     */
+    public void reset(int index) {
+        publishedTimes[index] = 0;
+    }
+}
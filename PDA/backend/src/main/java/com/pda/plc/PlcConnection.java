@@ -0,0 +1,194 @@
+package com.pda.plc;
+
+import com.digitalpetri.modbus.master.ModbusTcpMaster;
+import com.digitalpetri.modbus.requests.ReadHoldingRegistersRequest;
+import com.digitalpetri.modbus.responses.ReadHoldingRegistersResponse;
+import com.pda.entity.PlcConfig;
+import io.netty.buffer.ByteBuf;
+import io.netty.util.ReferenceCountUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个PLC的Modbus TCP会话
+ * 同一Socket上最多保持 maxInFlight 个未完成事务（事务ID由Modbus主站分配），超出窗口的请求排队；
+ * 失败的请求按PLC配置的重试次数和重试间隔异步重试，不占用调用线程
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Slf4j
+class PlcConnection {
+
+    private final PlcConfig config;
+    private final ModbusTcpMaster master;
+    private final int unitId;
+    private final int maxInFlight;
+    private final int maxQueuedRequests;
+    private final ScheduledExecutorService retryScheduler;
+
+    private final Queue<PendingRead> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong completedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong retryCount = new AtomicLong();
+
+    PlcConnection(PlcConfig config, ModbusTcpMaster master, int unitId, int maxInFlight,
+                  int maxQueuedRequests, ScheduledExecutorService retryScheduler) {
+        this.config = config;
+        this.master = master;
+        this.unitId = unitId;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.maxQueuedRequests = Math.max(1, maxQueuedRequests);
+        this.retryScheduler = retryScheduler;
+    }
+
+    /**
+     * 异步读取保持寄存器
+     */
+    CompletableFuture<int[]> readHoldingRegisters(int address, int quantity) {
+        CompletableFuture<int[]> result = new CompletableFuture<>();
+        if (queued.incrementAndGet() > maxQueuedRequests) {
+            queued.decrementAndGet();
+            failedCount.incrementAndGet();
+            result.completeExceptionally(new IllegalStateException(
+                    "PLC请求队列已满: " + config.getConnectionAddress()));
+            return result;
+        }
+        pending.add(new PendingRead(address, quantity, result));
+        dispatch();
+        return result;
+    }
+
+    /**
+     * 在窗口允许的范围内发送排队中的请求
+     */
+    private void dispatch() {
+        while (!pending.isEmpty()) {
+            int current = inFlight.get();
+            if (current >= maxInFlight) {
+                return;
+            }
+            if (!inFlight.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            PendingRead read = pending.poll();
+            if (read == null) {
+                inFlight.decrementAndGet();
+                continue;
+            }
+            queued.decrementAndGet();
+            send(read, 0);
+        }
+    }
+
+    private void send(PendingRead read, int attempt) {
+        CompletableFuture<ReadHoldingRegistersResponse> future =
+                master.sendRequest(new ReadHoldingRegistersRequest(read.address, read.quantity), unitId);
+        future.whenComplete((response, error) -> {
+            if (error == null) {
+                try {
+                    read.result.complete(decode(response, read.quantity));
+                    completedCount.incrementAndGet();
+                } catch (RuntimeException e) {
+                    read.result.completeExceptionally(e);
+                    failedCount.incrementAndGet();
+                } finally {
+                    ReferenceCountUtil.release(response);
+                }
+                release();
+            } else if (attempt < config.getRetryCount()) {
+                retryCount.incrementAndGet();
+                log.debug("PLC读取失败，{}ms后重试（第{}次） - PLC: {}, 地址: D{}", config.getRetryInterval(),
+                        attempt + 1, config.getConnectionAddress(), read.address);
+                try {
+                    retryScheduler.schedule(() -> send(read, attempt + 1),
+                            config.getRetryInterval(), TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    fail(read, error);
+                }
+            } else {
+                fail(read, error);
+            }
+        });
+    }
+
+    private void fail(PendingRead read, Throwable error) {
+        failedCount.incrementAndGet();
+        read.result.completeExceptionally(error);
+        release();
+    }
+
+    private void release() {
+        inFlight.decrementAndGet();
+        dispatch();
+    }
+
+    private static int[] decode(ReadHoldingRegistersResponse response, int quantity) {
+        ByteBuf buffer = response.getRegisters();
+        int[] registers = new int[quantity];
+        for (int i = 0; i < quantity; i++) {
+            registers[i] = buffer.readUnsignedShort();
+        }
+        return registers;
+    }
+
+    /**
+     * 断开连接，并使排队中的请求失败
+     */
+    void close() {
+        PendingRead read;
+        while ((read = pending.poll()) != null) {
+            queued.decrementAndGet();
+            read.result.completeExceptionally(new IllegalStateException(
+                    "PLC连接已关闭: " + config.getConnectionAddress()));
+        }
+        master.disconnect();
+    }
+
+    PlcConfig getConfig() {
+        return config;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    int getQueued() {
+        return queued.get();
+    }
+
+    long getCompletedCount() {
+        return completedCount.get();
+    }
+
+    long getFailedCount() {
+        return failedCount.get();
+    }
+
+    long getRetryCount() {
+        return retryCount.get();
+    }
+
+    private static final class PendingRead {
+        private final int address;
+        private final int quantity;
+        private final CompletableFuture<int[]> result;
+
+        private PendingRead(int address, int quantity, CompletableFuture<int[]> result) {
+            this.address = address;
+            this.quantity = quantity;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.pda.plc;
+
+import com.pda.entity.DevicePointMapping.PointType;
+import lombok.Value;
+
+/**
+ * 采集点位描述（不可变）
+ * 由点位映射或设备的PLC地址生成，index 为目录内的稠密序号
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Value
+public class PlcPoint {
+
+    /**
+     * 目录内序号（0..n-1）
+     */
+    int index;
+
+    /**
+     * 点位映射ID（由设备PLC地址生成的点位为null）
+     */
+    Long mappingId;
+
+    /**
+     * 设备ID
+     */
+    Long deviceId;
+
+    /**
+     * 设备编号
+     */
+    String deviceCode;
+
+    /**
+     * 点位类型
+     */
+    PointType pointType;
+
+    /**
+     * 起始寄存器地址
+     */
+    int register;
+
+    /**
+     * 占用寄存器数量
+     */
+    int registerCount;
+
+    /**
+     * 所属PLC配置ID（null表示默认PLC）
+     */
+    Long plcConfigId;
+
+    /**
+     * 将读取到的寄存器值组合为点位值（双字按低字在前处理）
+     */
+    public int decode(int[] registers, int offset) {
+        if (registerCount == 2) {
+            return (registers[offset + 1] << 16) | registers[offset];
+        }
+        return registers[offset];
+    }
+}
@@ -0,0 +1,181 @@
+package com.pda.plc;
+
+import com.pda.entity.Device;
+import com.pda.entity.DevicePointMapping;
+import com.pda.entity.DevicePointMapping.PointType;
+import com.pda.repository.DeviceRepository;
+import com.pda.repository.DevicePointMappingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 采集点位目录
+ * 汇总所有启用的点位映射；没有配置点位映射的设备使用其PLC地址作为数据点位。
+ * 每个点位分配一个稠密序号，目录刷新后序号保持不变，可直接用作实时值表的下标
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PlcPointCatalog {
+
+    private final DeviceRepository deviceRepository;
+    private final DevicePointMappingRepository devicePointMappingRepository;
+    private final PlcProperties plcProperties;
+
+    private volatile List<PlcPoint> points = Collections.emptyList();
+
+    private volatile Map<Long, PlcPoint> dataPointsByDevice = Collections.emptyMap();
+
+    private volatile List<PlcPoint> dataPoints = Collections.emptyList();
+
+    /**
+     * 点位键（M+映射ID 或 D+设备ID）到稠密序号的分配表，刷新目录时序号保持不变
+     */
+    private final Map<String, Integer> indexByKey = new ConcurrentHashMap<>();
+
+    private volatile int indexCapacity;
+
+    /**
+     * 应用启动完成后加载点位目录
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+
+    /**
+     * 定期刷新点位目录，使新增的设备和点位映射生效
+     */
+    @Scheduled(fixedDelayString = "${app.plc.catalog-refresh-interval:60000}",
+               initialDelayString = "${app.plc.catalog-refresh-interval:60000}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    /**
+     * 重新加载点位目录
+     */
+    public synchronized void refresh() {
+        List<DevicePointMapping> mappings = devicePointMappingRepository.findEnabledMappings();
+        List<Device> devices = deviceRepository.findAll();
+
+        List<PlcPoint> loaded = new ArrayList<>();
+        Map<Long, PlcPoint> dataPointMap = new LinkedHashMap<>();
+        Set<Long> mappedDevices = new HashSet<>();
+
+        for (DevicePointMapping mapping : mappings) {
+            if (!mapping.isReadable() || !PlcAddress.isRegisterAddress(mapping.getPlcAddress())) {
+                continue;
+            }
+            Integer index = allocateIndex("M" + mapping.getId());
+            if (index == null) {
+                continue;
+            }
+            PlcPoint point = new PlcPoint(
+                    index,
+                    mapping.getId(),
+                    mapping.getDeviceId(),
+                    mapping.getDeviceCode(),
+                    mapping.getPointType(),
+                    PlcAddress.parseRegister(mapping.getPlcAddress()),
+                    PlcAddress.registerCount(mapping.getDataType()),
+                    mapping.getPlcConfigId());
+            loaded.add(point);
+            mappedDevices.add(mapping.getDeviceId());
+            if (point.getPointType() == PointType.DATA) {
+                dataPointMap.putIfAbsent(point.getDeviceId(), point);
+            }
+        }
+
+        for (Device device : devices) {
+            if (mappedDevices.contains(device.getId()) || !PlcAddress.isRegisterAddress(device.getPlcAddress())) {
+                continue;
+            }
+            Integer index = allocateIndex("D" + device.getId());
+            if (index == null) {
+                continue;
+            }
+            PlcPoint point = new PlcPoint(
+                    index,
+                    null,
+                    device.getId(),
+                    device.getDeviceCode(),
+                    PointType.DATA,
+                    PlcAddress.parseRegister(device.getPlcAddress()),
+                    1,
+                    null);
+            loaded.add(point);
+            dataPointMap.put(device.getId(), point);
+        }
+
+        this.points = Collections.unmodifiableList(loaded);
+        this.dataPointsByDevice = Collections.unmodifiableMap(dataPointMap);
+        this.dataPoints = Collections.unmodifiableList(new ArrayList<>(dataPointMap.values()));
+        log.debug("PLC点位目录已刷新，点位数量: {}，数据点位设备数量: {}", loaded.size(), dataPointMap.size());
+    }
+
+    /**
+     * 分配（或复用）点位序号，超出点位容量时返回null
+     */
+    private Integer allocateIndex(String key) {
+        Integer index = indexByKey.get(key);
+        if (index != null) {
+            return index;
+        }
+        if (indexCapacity >= plcProperties.getMaxPoints()) {
+            log.warn("PLC点位数量超出上限 {}，忽略点位: {}", plcProperties.getMaxPoints(), key);
+            return null;
+        }
+        index = indexCapacity;
+        indexByKey.put(key, index);
+        indexCapacity = index + 1;
+        return index;
+    }
+
+    /**
+     * 获取已分配的点位序号上限（所有点位序号都小于该值）
+     */
+    public int getIndexCapacity() {
+        return indexCapacity;
+    }
+
+    /**
+     * 根据点位映射ID获取点位序号，未加载的映射返回-1
+     */
+    public int indexOfMapping(Long mappingId) {
+        Integer index = indexByKey.get("M" + mappingId);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * 获取全部点位
+     */
+    public List<PlcPoint> getPoints() {
+        return points;
+    }
+
+    /**
+     * 获取设备的计数数据点位
+     */
+    public Optional<PlcPoint> getDataPoint(Long deviceId) {
+        return Optional.ofNullable(dataPointsByDevice.get(deviceId));
+    }
+
+    /**
+     * 获取所有设备的计数数据点位
+     */
+    public List<PlcPoint> getDataPoints() {
+        return dataPoints;
+    }
+}
@@ -0,0 +1,151 @@
+package com.pda.plc;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * PLC点位实时值表
+ * 以点位稠密序号为下标，在原始long数组中保存值、质量和时间戳：
+ * <pre>
+ *   cells[2i]     = 值(32位) | 质量(8位) | 版本(24位)
+ *   cells[2i + 1] = 时间戳偏移(40位，相对建表时间的毫秒数) | 版本(24位)
+ * </pre>
+ * 值和质量位于同一个long中，单独读取时无锁且不分配对象。时间戳单元的版本号兼作顺序锁：
+ * 写入方用CAS把偶数版本改为奇数占用点位，写完值单元后再以下一个偶数版本写回时间戳单元；
+ * 需要三者一致的快照时，读取方在读值单元前后各读一次时间戳单元，两次相同且为偶数版本才有效。
+ * 同一点位可能被多个线程并发写入（批量采集回调、重试调度、同步单点读取）。
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Component
+public class PlcPointValueTable {
+
+    private static final long VERSION_MASK = 0xFFFFFFL;
+
+    private static final int MAX_SNAPSHOT_ATTEMPTS = 8;
+
+    private final AtomicLongArray cells;
+
+    private final int capacity;
+
+    private final long epoch = System.currentTimeMillis();
+
+    public PlcPointValueTable(PlcProperties plcProperties) {
+        this.capacity = plcProperties.getMaxPoints();
+        this.cells = new AtomicLongArray(capacity * 2);
+    }
+
+    /**
+     * 写入读取成功的点位值
+     */
+    public void update(int index, int value, long timestamp) {
+        write(index, value, PointValue.QUALITY_GOOD, timestamp);
+    }
+
+    /**
+     * 标记点位读取失败，保留上一次的值
+     */
+    public void markBad(int index, long timestamp) {
+        checkIndex(index);
+        long version = lock(index);
+        int value = (int) (cells.get(2 * index) >>> 32);
+        unlock(index, version, value, PointValue.QUALITY_BAD, timestamp);
+    }
+
+    private void write(int index, int value, int quality, long timestamp) {
+        checkIndex(index);
+        unlock(index, lock(index), value, quality, timestamp);
+    }
+
+    /**
+     * 占用点位：把时间戳单元的偶数版本CAS为奇数，返回占用时的奇数版本
+     */
+    private long lock(int index) {
+        while (true) {
+            long timeCell = cells.get(2 * index + 1);
+            if ((timeCell & 1) == 0) {
+                long version = (timeCell + 1) & VERSION_MASK;
+                if (cells.compareAndSet(2 * index + 1, timeCell, (timeCell & ~VERSION_MASK) | version)) {
+                    return version;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * 写入值单元，再以下一个偶数版本写回时间戳单元释放点位
+     */
+    private void unlock(int index, long lockedVersion, int value, int quality, long timestamp) {
+        long version = (lockedVersion + 1) & VERSION_MASK;
+        cells.set(2 * index, ((long) value << 32) | ((long) (quality & 0xFF) << 24) | version);
+        cells.set(2 * index + 1, ((timestamp - epoch) << 24) | version);
+    }
+
+    /**
+     * 获取点位值
+     */
+    public int getValue(int index) {
+        checkIndex(index);
+        return (int) (cells.get(2 * index) >>> 32);
+    }
+
+    /**
+     * 获取点位质量
+     */
+    public int getQuality(int index) {
+        checkIndex(index);
+        return (int) ((cells.get(2 * index) >>> 24) & 0xFF);
+    }
+
+    /**
+     * 获取点位更新时间（从未更新返回0）
+     */
+    public long getTimestamp(int index) {
+        checkIndex(index);
+        long cell = cells.get(2 * index + 1);
+        return cell <= 1 ? 0 : (cell >>> 24) + epoch;
+    }
+
+    /**
+     * 读取点位的一致快照到调用方提供的容器中
+     *
+     * @return 点位是否有过读取结果；写入持续冲突、重试次数用尽时返回false且不修改容器
+     */
+    public boolean read(int index, PointValue target) {
+        checkIndex(index);
+        for (int attempt = 0; attempt < MAX_SNAPSHOT_ATTEMPTS; attempt++) {
+            long timeCell = cells.get(2 * index + 1);
+            if ((timeCell & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            long valueCell = cells.get(2 * index);
+            if (cells.get(2 * index + 1) != timeCell) {
+                continue;
+            }
+            int quality = (int) ((valueCell >>> 24) & 0xFF);
+            target.setValue((int) (valueCell >>> 32));
+            target.setQuality(quality);
+            target.setTimestamp(timeCell == 0 ? 0 : (timeCell >>> 24) + epoch);
+            return quality != PointValue.QUALITY_UNKNOWN;
+        }
+        return false;
+    }
+
+    /**
+     * 获取表容量
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= capacity) {
+            throw new IndexOutOfBoundsException("点位序号超出实时值表容量: " + index);
+        }
+    }
+}
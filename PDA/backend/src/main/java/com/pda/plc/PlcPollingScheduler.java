@@ -0,0 +1,152 @@
+package com.pda.plc;
+
+import com.pda.entity.DevicePointMapping.PointType;
+import com.pda.entity.PlcSample;
+import com.pda.service.DeviceRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * PLC多速率轮询调度器
+ * 状态点位快速轮询，计数点位较慢轮询；生产中的设备按基础周期轮询，
+ * 空闲和维修中的设备按倍率放慢，降低空闲班次的PLC和网络负载
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PlcPollingScheduler {
+
+    private final PlcPointCatalog plcPointCatalog;
+    private final PlcAcquisitionEngine plcAcquisitionEngine;
+    private final DeviceRegistry deviceRegistry;
+    private final ProductionCounterAccumulator productionCounterAccumulator;
+    private final PlcChangeFilter plcChangeFilter;
+    private final PlcSampleRecorder plcSampleRecorder;
+    private final PlcProperties plcProperties;
+
+    /**
+     * 当前调度的点位列表（点位目录刷新后重建调度表）
+     */
+    private List<PlcPoint> scheduledPoints = Collections.emptyList();
+
+    /**
+     * 每个点位下一次到期时间（按点位序号索引）
+     */
+    private long[] nextDueTimes = new long[0];
+
+    private volatile Map<Long, String> deviceStatuses = Collections.emptyMap();
+
+    private long deviceStatusLoadedAt;
+
+    @Scheduled(fixedDelayString = "${app.plc.polling.tick:250}")
+    public void poll() {
+        if (!plcAcquisitionEngine.isEnabled()) {
+            return;
+        }
+        try {
+            pollDuePoints(System.currentTimeMillis());
+        } catch (Exception e) {
+            log.error("PLC轮询失败", e);
+        }
+    }
+
+    private void pollDuePoints(long now) {
+        List<PlcPoint> points = plcPointCatalog.getPoints();
+        if (points != scheduledPoints) {
+            scheduledPoints = points;
+            nextDueTimes = new long[plcPointCatalog.getIndexCapacity()];
+        }
+        refreshDeviceStatuses(now);
+
+        List<PlcPoint> duePoints = new ArrayList<>();
+        for (PlcPoint point : points) {
+            if (nextDueTimes[point.getIndex()] <= now) {
+                duePoints.add(point);
+                nextDueTimes[point.getIndex()] = now + intervalOf(point);
+            }
+        }
+        if (duePoints.isEmpty()) {
+            return;
+        }
+
+        // 每次采样都参与产量累计（回绕和清零检测需要连续的计数），只有通过变化检测的采样才会保存；
+        // 采样在轮询线程中提交到写入管道，BLOCK策略的背压只会放慢轮询，不会阻塞通信线程
+        Queue<PlcSample> samples = new ConcurrentLinkedQueue<>();
+        CompletableFuture<Void> reads = plcAcquisitionEngine.readPoints(duePoints, (point, value) -> {
+            productionCounterAccumulator.onSample(point, value);
+            long timestamp = System.currentTimeMillis();
+            if (plcChangeFilter.accept(point, value, timestamp)) {
+                samples.add(PlcSampleRecorder.toSample(point, value, timestamp));
+            }
+        });
+        plcAcquisitionEngine.await(reads, null);
+
+        if (!samples.isEmpty()) {
+            plcSampleRecorder.record(new ArrayList<>(samples));
+        }
+        log.trace("PLC轮询完成，到期点位: {}，变化采样: {}", duePoints.size(), samples.size());
+    }
+
+    /**
+     * 计算点位的轮询周期：点位类型决定基础周期，设备状态决定倍率
+     */
+    long intervalOf(PlcPoint point) {
+        PlcProperties.Polling polling = plcProperties.getPolling();
+        long baseInterval;
+        switch (point.getPointType()) {
+            case STATUS:
+                baseInterval = polling.getStatusInterval();
+                break;
+            case DATA:
+                baseInterval = polling.getDataInterval();
+                break;
+            default:
+                baseInterval = polling.getControlInterval();
+                break;
+        }
+
+        String status = deviceStatuses.get(point.getDeviceId());
+        if ("idle".equals(status)) {
+            return Math.round(baseInterval * polling.getIdleFactor());
+        }
+        if ("maintenance".equals(status)) {
+            return Math.round(baseInterval * polling.getMaintenanceFactor());
+        }
+        return baseInterval;
+    }
+
+    /**
+     * 定期刷新设备状态，用于调整轮询周期
+     */
+    private void refreshDeviceStatuses(long now) {
+        if (now - deviceStatusLoadedAt < plcProperties.getPolling().getDeviceStatusRefreshInterval()) {
+            return;
+        }
+        // 从内存中的设备注册表读取，不访问数据库
+        Map<Long, String> statuses = new HashMap<>();
+        for (PlcPoint point : scheduledPoints) {
+            deviceRegistry.getStatus(point.getDeviceId()).ifPresent(status -> statuses.put(point.getDeviceId(), status));
+        }
+        Map<Long, String> previous = deviceStatuses;
+        deviceStatuses = statuses;
+        deviceStatusLoadedAt = now;
+
+        // 设备进入生产状态时立即轮询，不等待放慢后的周期到期
+        for (PlcPoint point : scheduledPoints) {
+            if ("working".equals(statuses.get(point.getDeviceId()))
+                    && !"working".equals(previous.get(point.getDeviceId()))) {
+                nextDueTimes[point.getIndex()] = now;
+            }
+        }
+    }
+}
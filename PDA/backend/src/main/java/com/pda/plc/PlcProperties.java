@@ -0,0 +1,264 @@
+package com.pda.plc;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * PLC采集配置（对应 app.plc.*）
+ * 数据库中没有可用的PLC配置时，使用这里的默认连接参数
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.plc")
+public class PlcProperties {
+
+    /**
+     * 是否启用PLC数据采集
+     */
+    private boolean enabled = true;
+
+    /**
+     * 默认PLC IP地址
+     */
+    private String defaultIp = "192.168.100.1";
+
+    /**
+     * 默认PLC端口
+     */
+    private int defaultPort = 502;
+
+    /**
+     * 连接超时时间（毫秒）
+     */
+    private int connectionTimeout = 5000;
+
+    /**
+     * 读取超时时间（毫秒）
+     */
+    private int readTimeout = 3000;
+
+    /**
+     * 重试次数
+     */
+    private int retryCount = 3;
+
+    /**
+     * 重试间隔（毫秒）
+     */
+    private int retryInterval = 1000;
+
+    /**
+     * Modbus从站单元ID
+     */
+    private int unitId = 1;
+
+    /**
+     * 同步等待PLC读取结果的最长时间（毫秒）
+     */
+    private long syncTimeout = 2000;
+
+    /**
+     * 点位目录刷新周期（毫秒）
+     */
+    private long catalogRefreshInterval = 60000;
+
+    /**
+     * 单次Modbus读取的最大寄存器数量（协议上限125）
+     */
+    private int readMaxRegisters = 125;
+
+    /**
+     * 合并读取时允许跨越的最大空闲寄存器数量
+     */
+    private int readGapTolerance = 8;
+
+    /**
+     * 每个PLC连接上同时未完成的Modbus事务数量
+     */
+    private int maxInFlight = 4;
+
+    /**
+     * 每个PLC连接允许排队的最大请求数量，超出后直接失败
+     */
+    private int maxQueuedRequests = 64;
+
+    /**
+     * 实时值表容量（最大点位数量）
+     */
+    private int maxPoints = 4096;
+
+    /**
+     * 多速率轮询配置
+     */
+    private Polling polling = new Polling();
+
+    /**
+     * 采样变化检测配置
+     */
+    private ChangeFilter changeFilter = new ChangeFilter();
+
+    /**
+     * 生产计数累加配置
+     */
+    private Accumulator accumulator = new Accumulator();
+
+    /**
+     * 采样写入管道配置
+     */
+    private Pipeline pipeline = new Pipeline();
+
+    /**
+     * 本地预写日志配置
+     */
+    private Spool spool = new Spool();
+
+    /**
+     * 多速率轮询配置（对应 app.plc.polling.*）
+     */
+    @Data
+    public static class Polling {
+
+        /**
+         * 调度器检查到期点位的周期（毫秒）
+         */
+        private long tick = 250;
+
+        /**
+         * 状态点位轮询周期（毫秒）
+         */
+        private long statusInterval = 250;
+
+        /**
+         * 计数点位轮询周期（毫秒）
+         */
+        private long dataInterval = 1000;
+
+        /**
+         * 清零/控制点位轮询周期（毫秒）
+         */
+        private long controlInterval = 5000;
+
+        /**
+         * 空闲设备的轮询周期倍率
+         */
+        private double idleFactor = 4.0;
+
+        /**
+         * 维修中设备的轮询周期倍率
+         */
+        private double maintenanceFactor = 8.0;
+
+        /**
+         * 设备状态刷新周期（毫秒）
+         */
+        private long deviceStatusRefreshInterval = 2000;
+    }
+
+    /**
+     * 采样变化检测配置（对应 app.plc.change-filter.*）
+     */
+    @Data
+    public static class ChangeFilter {
+
+        /**
+         * 绝对死区：变化量不超过该值时视为未变化
+         */
+        private long absoluteDeadband = 0;
+
+        /**
+         * 百分比死区：相对上次发布值的变化百分比不超过该值时视为未变化（0表示不启用）
+         */
+        private double percentDeadband = 0;
+
+        /**
+         * 最大静默时间（毫秒）：超过该时间未发布时强制发布一次心跳采样
+         */
+        private long maxSilence = 300000;
+    }
+
+    /**
+     * 生产计数累加配置（对应 app.plc.accumulator.*）
+     */
+    @Data
+    public static class Accumulator {
+
+        /**
+         * 产量回写周期（毫秒）
+         */
+        private long flushInterval = 2000;
+
+        /**
+         * 回绕判定窗口：上次计数距上限、本次计数距0都在该范围内时视为寄存器回绕，否则视为计数清零
+         */
+        private long wrapWindow = 1000;
+
+        /**
+         * 清零信号有效时间（毫秒）：清零点位触发后该时间内没有出现计数回退时清除清零信号
+         */
+        private long resetWindow = 5000;
+    }
+
+    /**
+     * 采样写入管道配置（对应 app.plc.pipeline.*）
+     */
+    @Data
+    public static class Pipeline {
+
+        /**
+         * 队列容量（最多缓存的采样数量）
+         */
+        private int queueCapacity = 10000;
+
+        /**
+         * 批量写入大小
+         */
+        private int batchSize = 500;
+
+        /**
+         * 最长写入间隔（毫秒）：队列未达到批量大小时也按该间隔写入
+         */
+        private long flushInterval = 1000;
+
+        /**
+         * 队列已满时的处理策略
+         */
+        private PlcSampleRecorder.OverflowPolicy overflowPolicy = PlcSampleRecorder.OverflowPolicy.DROP_OLDEST;
+
+        /**
+         * BLOCK策略下等待队列空间的最长时间（毫秒）
+         */
+        private long offerTimeout = 200;
+    }
+
+    /**
+     * 本地预写日志配置（对应 app.plc.spool.*）
+     */
+    @Data
+    public static class Spool {
+
+        /**
+         * 是否启用本地预写日志
+         */
+        private boolean enabled = true;
+
+        /**
+         * 预写日志目录
+         */
+        private String directory = "./spool/plc";
+
+        /**
+         * 分段文件大小（字节）
+         */
+        private int segmentSize = 16 * 1024 * 1024;
+
+        /**
+         * 最大分段数量，达到上限后按写入管道的溢出策略处理
+         */
+        private int maxSegments = 64;
+    }
+}
@@ -0,0 +1,85 @@
+package com.pda.plc;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * PLC读取计划生成器
+ * 将点位按PLC分组、按地址排序后合并为尽量少的Modbus读取请求
+ * （每个请求不超过Modbus协议上限125个寄存器，间隔不超过容忍值的相邻点位合并读取）
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Component
+@RequiredArgsConstructor
+public class PlcReadPlanner {
+
+    /**
+     * Modbus单次读取保持寄存器的协议上限
+     */
+    public static final int MODBUS_MAX_REGISTERS = 125;
+
+    private final PlcProperties plcProperties;
+
+    /**
+     * 使用 app.plc 中配置的上限和间隔容忍值生成读取计划
+     */
+    public List<ReadBlock> plan(Collection<PlcPoint> points) {
+        return plan(points, plcProperties.getReadMaxRegisters(), plcProperties.getReadGapTolerance());
+    }
+
+    /**
+     * 生成读取计划
+     *
+     * @param points       待读取点位
+     * @param maxRegisters 单次读取最大寄存器数量
+     * @param gapTolerance 允许合并的相邻点位之间的最大空闲寄存器数量
+     */
+    public static List<ReadBlock> plan(Collection<PlcPoint> points, int maxRegisters, int gapTolerance) {
+        int limit = Math.max(1, Math.min(maxRegisters, MODBUS_MAX_REGISTERS));
+        int gap = Math.max(0, gapTolerance);
+
+        Map<Long, List<PlcPoint>> pointsByPlc = points.stream()
+                .collect(Collectors.groupingBy(
+                        point -> point.getPlcConfigId() != null ? point.getPlcConfigId() : ModbusConnectionPool.DEFAULT_KEY,
+                        TreeMap::new,
+                        Collectors.toList()));
+
+        List<ReadBlock> blocks = new ArrayList<>();
+        for (List<PlcPoint> plcPoints : pointsByPlc.values()) {
+            plcPoints.sort(Comparator.comparingInt(PlcPoint::getRegister)
+                    .thenComparingInt(PlcPoint::getIndex));
+
+            List<PlcPoint> current = new ArrayList<>();
+            int start = 0;
+            int end = 0; // 不包含
+
+            for (PlcPoint point : plcPoints) {
+                int pointEnd = point.getRegister() + point.getRegisterCount();
+                if (!current.isEmpty()
+                        && point.getRegister() - end <= gap
+                        && Math.max(end, pointEnd) - start <= limit) {
+                    current.add(point);
+                    end = Math.max(end, pointEnd);
+                    continue;
+                }
+                if (!current.isEmpty()) {
+                    blocks.add(new ReadBlock(current.get(0).getPlcConfigId(), start, end - start, current));
+                }
+                current = new ArrayList<>();
+                current.add(point);
+                start = point.getRegister();
+                end = pointEnd;
+            }
+            if (!current.isEmpty()) {
+                blocks.add(new ReadBlock(current.get(0).getPlcConfigId(), start, end - start, current));
+            }
+        }
+        return blocks;
+    }
+}
@@ -0,0 +1,414 @@
+package com.pda.plc;
+
+import com.pda.entity.PlcSample;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * PLC采样记录器
+ * 采集和数据库写入之间的有界管道：采样进入有界无锁队列，由独立的写入线程按批量大小或时间
+ * 以JDBC批量插入保存。数据库变慢时按溢出策略丢弃采样或对调用方施加有限时间的背压，
+ * 不会无限占用内存，也不会阻塞PLC通信线程。
+ * 启用本地预写日志时采样先写入预写日志，写入线程从已提交偏移量按顺序重放，数据库不可用时
+ * 保留在磁盘上等待重放
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Slf4j
+@Component
+public class PlcSampleRecorder {
+
+    private static final String INSERT_SQL = "INSERT INTO plc_samples "
+            + "(mapping_id, device_id, device_code, point_type, plc_address, sample_value, sample_time) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * 重放预写日志时按（预写日志标识, 偏移量）唯一键跳过已写入的记录，其他错误照常抛出
+     */
+    private static final String SPOOL_INSERT_SQL = "INSERT INTO plc_samples "
+            + "(mapping_id, device_id, device_code, point_type, plc_address, sample_value, sample_time, spool_id, spool_offset) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE id = id";
+
+    /**
+     * 队列溢出策略
+     */
+    public enum OverflowPolicy {
+        /**
+         * 丢弃新采样
+         */
+        DROP_NEWEST,
+        /**
+         * 丢弃最旧的采样，为新采样腾出空间
+         */
+        DROP_OLDEST,
+        /**
+         * 等待队列空间（最长 offer-timeout），超时后丢弃新采样
+         */
+        BLOCK
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlcSpool plcSpool;
+    private final PlcProperties.Pipeline config;
+
+    private final Queue<PlcSample> queue = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 队列中的采样数量（入队前先预留名额，保证队列有界）
+     */
+    private final AtomicInteger depth = new AtomicInteger();
+
+    private final Counter droppedCounter;
+    private final Counter writtenCounter;
+    private final Counter failedCounter;
+    private final Timer flushTimer;
+
+    private volatile boolean running;
+
+    private Thread writerThread;
+
+    public PlcSampleRecorder(JdbcTemplate jdbcTemplate, PlcSpool plcSpool, PlcProperties plcProperties,
+                             MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.plcSpool = plcSpool;
+        this.config = plcProperties.getPipeline();
+        Gauge.builder("plc.pipeline.queue.depth", depth, AtomicInteger::get)
+                .description("等待写入数据库的PLC采样数量")
+                .register(meterRegistry);
+        Gauge.builder("plc.spool.pending", plcSpool, PlcSpool::getPendingBytes)
+                .description("预写日志中等待重放的字节数")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("plc.pipeline.dropped")
+                .description("因队列已满被丢弃的PLC采样数量")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("plc.pipeline.written")
+                .description("已写入数据库的PLC采样数量")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("plc.pipeline.failed")
+                .description("写入数据库失败后被丢弃的PLC采样数量")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("plc.pipeline.flush")
+                .description("PLC采样批量写入耗时")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 根据点位和采样值创建采样记录
+     */
+    public static PlcSample toSample(PlcPoint point, int value, long timestamp) {
+        PlcSample sample = new PlcSample();
+        sample.setMappingId(point.getMappingId());
+        sample.setDeviceId(point.getDeviceId());
+        sample.setDeviceCode(point.getDeviceCode());
+        sample.setPointType(point.getPointType().name());
+        sample.setPlcAddress("D" + point.getRegister());
+        sample.setSampleValue(value);
+        sample.setSampleTime(LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault()));
+        return sample;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writerThread = plcSpool.isEnabled()
+                ? new Thread(this::replayLoop, "plc-spool-replayer")
+                : new Thread(this::writeLoop, "plc-sample-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * 提交一组采样记录
+     *
+     * @return 被丢弃的采样数量
+     */
+    public int record(Collection<PlcSample> samples) {
+        int dropped = 0;
+        for (PlcSample sample : samples) {
+            if (!offer(sample)) {
+                dropped++;
+            }
+        }
+        if (dropped > 0) {
+            log.warn("PLC采样队列已满（容量 {}），丢弃采样: {}条", config.getQueueCapacity(), dropped);
+        }
+        return dropped;
+    }
+
+    /**
+     * 提交一条采样记录，按溢出策略处理队列已满的情况
+     *
+     * @return 采样是否进入队列
+     */
+    public boolean offer(PlcSample sample) {
+        if (plcSpool.isEnabled()) {
+            return offerToSpool(sample);
+        }
+        if (tryReserve()) {
+            enqueue(sample);
+            return true;
+        }
+        switch (config.getOverflowPolicy()) {
+            case DROP_OLDEST:
+                while (true) {
+                    // 丢弃的最旧采样的名额直接转给新采样
+                    if (queue.poll() != null) {
+                        droppedCounter.increment();
+                        queue.add(sample);
+                        return true;
+                    }
+                    if (tryReserve()) {
+                        enqueue(sample);
+                        return true;
+                    }
+                    Thread.onSpinWait();
+                }
+            case BLOCK:
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getOfferTimeout());
+                while (System.nanoTime() < deadline) {
+                    LockSupport.unpark(writerThread);
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                    if (tryReserve()) {
+                        enqueue(sample);
+                        return true;
+                    }
+                }
+                droppedCounter.increment();
+                return false;
+            default:
+                droppedCounter.increment();
+                return false;
+        }
+    }
+
+    /**
+     * 写入预写日志，预写日志已满时按溢出策略处理
+     */
+    private boolean offerToSpool(PlcSample sample) {
+        if (plcSpool.append(sample)) {
+            return true;
+        }
+        switch (config.getOverflowPolicy()) {
+            case DROP_OLDEST:
+                if (plcSpool.dropOldestSegment() && plcSpool.append(sample)) {
+                    return true;
+                }
+                droppedCounter.increment();
+                return false;
+            case BLOCK:
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getOfferTimeout());
+                while (System.nanoTime() < deadline) {
+                    LockSupport.unpark(writerThread);
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                    if (plcSpool.append(sample)) {
+                        return true;
+                    }
+                }
+                droppedCounter.increment();
+                return false;
+            default:
+                droppedCounter.increment();
+                return false;
+        }
+    }
+
+    private boolean tryReserve() {
+        int current;
+        do {
+            current = depth.get();
+            if (current >= config.getQueueCapacity()) {
+                return false;
+            }
+        } while (!depth.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private void enqueue(PlcSample sample) {
+        queue.add(sample);
+        if (depth.get() >= config.getBatchSize()) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    /**
+     * 写入线程：队列达到批量大小或距上次写入超过刷新间隔时批量写入
+     */
+    private void writeLoop() {
+        List<PlcSample> batch = new ArrayList<>(config.getBatchSize());
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(config.getFlushInterval());
+        long lastFlush = System.nanoTime();
+        while (running || depth.get() > 0) {
+            long waited = System.nanoTime() - lastFlush;
+            if (running && depth.get() < config.getBatchSize() && waited < flushIntervalNanos) {
+                LockSupport.parkNanos(flushIntervalNanos - waited);
+                continue;
+            }
+            drain(batch);
+            if (!batch.isEmpty() && !write(batch, INSERT_SQL)) {
+                failedCounter.increment(batch.size());
+                log.error("丢弃写入失败的PLC采样记录: {}条", batch.size());
+            }
+            batch.clear();
+            lastFlush = System.nanoTime();
+        }
+    }
+
+    /**
+     * 重放线程：从已提交偏移量按顺序读取预写日志写入数据库，写入成功后提交偏移量；
+     * 写入失败时不提交，等待一个刷新间隔后从同一位置重试
+     */
+    private void replayLoop() {
+        List<PlcSample> batch = new ArrayList<>(config.getBatchSize());
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(config.getFlushInterval());
+        while (running) {
+            try {
+                plcSpool.force();
+                long nextOffset = plcSpool.read(plcSpool.getCommittedOffset(), config.getBatchSize(), batch);
+                boolean written = !batch.isEmpty() && replay(batch);
+                if (written) {
+                    plcSpool.commit(nextOffset);
+                }
+                if (!written || batch.size() < config.getBatchSize()) {
+                    LockSupport.parkNanos(flushIntervalNanos);
+                }
+            } catch (Exception e) {
+                log.error("重放PLC预写日志失败", e);
+                LockSupport.parkNanos(flushIntervalNanos);
+            } finally {
+                batch.clear();
+            }
+        }
+        plcSpool.force();
+    }
+
+    private void drain(List<PlcSample> batch) {
+        PlcSample sample;
+        while (batch.size() < config.getBatchSize() && (sample = queue.poll()) != null) {
+            depth.decrementAndGet();
+            batch.add(sample);
+        }
+    }
+
+    /**
+     * 重放一批预写日志记录：数据库不可用时返回false等待重试；记录本身无法写入（例如超长或非法值）时逐条写入，
+     * 跳过无法写入的记录，避免一条记录阻塞后续重放
+     *
+     * @return 是否可以提交这一批的偏移量
+     */
+    private boolean replay(List<PlcSample> batch) {
+        try {
+            insert(batch, SPOOL_INSERT_SQL);
+            return true;
+        } catch (DataAccessResourceFailureException e) {
+            log.error("保存PLC采样记录失败: {}条，原因: {}", batch.size(), e.getMessage());
+            return false;
+        } catch (NonTransientDataAccessException e) {
+            log.warn("批量重放PLC采样记录失败，逐条重放: {}条，原因: {}", batch.size(), e.getMessage());
+        } catch (Exception e) {
+            log.error("保存PLC采样记录失败: {}条，原因: {}", batch.size(), e.getMessage());
+            return false;
+        }
+        for (PlcSample sample : batch) {
+            try {
+                insert(Collections.singletonList(sample), SPOOL_INSERT_SQL);
+            } catch (NonTransientDataAccessException e) {
+                if (e instanceof DataAccessResourceFailureException) {
+                    return false;
+                }
+                failedCounter.increment();
+                log.error("丢弃无法写入的PLC采样记录 - 预写日志偏移量: {}，设备: {}，原因: {}",
+                        sample.getSpoolOffset(), sample.getDeviceCode(), e.getMessage());
+            } catch (Exception e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 批量写入采样记录
+     *
+     * @return 是否写入成功
+     */
+    private boolean write(List<PlcSample> batch, String sql) {
+        try {
+            insert(batch, sql);
+            return true;
+        } catch (Exception e) {
+            log.error("保存PLC采样记录失败: {}条，原因: {}", batch.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    private void insert(List<PlcSample> batch, String sql) {
+        long startTime = System.nanoTime();
+        try {
+            jdbcTemplate.batchUpdate(sql, batch, batch.size(), (ps, sample) -> {
+                if (sample.getMappingId() != null) {
+                    ps.setLong(1, sample.getMappingId());
+                } else {
+                    ps.setNull(1, Types.BIGINT);
+                }
+                ps.setLong(2, sample.getDeviceId());
+                ps.setString(3, sample.getDeviceCode());
+                ps.setString(4, sample.getPointType());
+                ps.setString(5, sample.getPlcAddress());
+                ps.setInt(6, sample.getSampleValue());
+                ps.setTimestamp(7, Timestamp.valueOf(sample.getSampleTime()));
+                if (sample.getSpoolOffset() != null) {
+                    ps.setString(8, sample.getSpoolId());
+                    ps.setLong(9, sample.getSpoolOffset());
+                }
+            });
+            writtenCounter.increment(batch.size());
+            log.trace("保存PLC采样记录: {}条", batch.size());
+        } finally {
+            flushTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 获取队列中的采样数量
+     */
+    public int getQueueDepth() {
+        return depth.get();
+    }
+
+    /**
+     * 停止写入线程，停止前写完队列中的采样
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        log.info("PLC采样记录器已停止，未写入采样: {}条", depth.get());
+    }
+}
@@ -0,0 +1,431 @@
+package com.pda.plc;
+
+import com.pda.entity.PlcSample;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * PLC采样本地预写日志
+ * 采样先追加到本地磁盘的内存映射分段文件，再由写入线程按顺序重放到数据库；
+ * 每条记录带CRC校验，重放成功后保存已提交偏移量，重启后从已提交偏移量继续重放。
+ * 打开时没有待重放的分段则生成新的唯一标识，标识和偏移量一起写入采样记录的唯一键，提交偏移量前崩溃导致的
+ * 重复重放由数据库去重；目录丢失或重建后偏移量从0开始，但标识不同，不会与之前的记录冲突
+ *
+ * 记录格式：长度(int) + CRC32(int) + 内容；长度为0表示分段中后续没有记录
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Slf4j
+@Component
+public class PlcSpool {
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final String COMMIT_FILE = "commit.offset";
+
+    private static final String ID_FILE = "spool.id";
+
+    private static final int RECORD_HEADER = 8;
+
+    private final PlcProperties.Spool config;
+
+    /**
+     * 分段基准偏移量到分段的映射
+     */
+    private final NavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+
+    /**
+     * 追加用的编码缓冲区（只在持有锁时使用）
+     */
+    private final ByteBuffer encodeBuffer = ByteBuffer.allocate(1024);
+
+    private final CRC32 writeCrc = new CRC32();
+
+    private Path directory;
+
+    /**
+     * 预写日志标识
+     */
+    private String spoolId;
+
+    private Segment active;
+
+    /**
+     * 下一条记录的写入偏移量（写入完成后发布，读取方只读取该偏移量之前的记录）
+     */
+    private volatile long writeOffset;
+
+    private volatile long committedOffset;
+
+    public PlcSpool(PlcProperties plcProperties) {
+        this.config = plcProperties.getSpool();
+    }
+
+    /**
+     * 打开预写日志，恢复写入位置和已提交偏移量
+     */
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        if (!config.isEnabled()) {
+            return;
+        }
+        directory = Paths.get(config.getDirectory());
+        Files.createDirectories(directory);
+        committedOffset = readCommittedOffset();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .forEach(path -> {
+                        String name = path.getFileName().toString();
+                        long baseOffset = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                        segments.put(baseOffset, mapSegment(path, baseOffset));
+                    });
+        }
+        // 没有分段时（首次启动、已全部重放或目录内容丢失）生成新的标识，之前的偏移量不会再被使用
+        spoolId = segments.isEmpty() ? createSpoolId() : readSpoolId();
+        if (segments.isEmpty()) {
+            active = createSegment(committedOffset);
+            writeOffset = committedOffset;
+        } else {
+            active = segments.lastEntry().getValue();
+            writeOffset = active.baseOffset + recoverWritePosition(active);
+            active.buffer.position((int) (writeOffset - active.baseOffset));
+        }
+        if (committedOffset < segments.firstKey()) {
+            committedOffset = segments.firstKey();
+        }
+        if (committedOffset > writeOffset) {
+            log.warn("PLC预写日志已提交偏移量 {} 超出写入位置 {}，重置为写入位置", committedOffset, writeOffset);
+            committedOffset = writeOffset;
+        }
+        deleteCommittedSegments();
+        log.info("PLC预写日志已打开: {}（标识 {}），分段数量: {}，待重放: {}字节", directory.toAbsolutePath(),
+                spoolId, segments.size(), writeOffset - committedOffset);
+    }
+
+    /**
+     * 扫描分段中的记录，返回最后一条完整且CRC正确的记录之后的位置
+     */
+    private int recoverWritePosition(Segment segment) {
+        ByteBuffer buffer = segment.buffer.duplicate();
+        CRC32 crc = new CRC32();
+        int position = 0;
+        while (position + RECORD_HEADER <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + RECORD_HEADER + length > buffer.capacity()) {
+                break;
+            }
+            ByteBuffer payload = buffer.duplicate();
+            payload.position(position + RECORD_HEADER).limit(position + RECORD_HEADER + length);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                log.warn("PLC预写日志记录校验失败，截断分段 {} 于位置 {}", segment.path.getFileName(), position);
+                break;
+            }
+            position += RECORD_HEADER + length;
+        }
+        // 清除截断位置之后的残留数据，避免后续追加的记录与残留数据拼接
+        for (int i = position; i < Math.min(position + RECORD_HEADER, buffer.capacity()); i++) {
+            buffer.put(i, (byte) 0);
+        }
+        return position;
+    }
+
+    /**
+     * 追加一条采样记录
+     *
+     * @return 预写日志已满（分段数量达到上限）时返回false
+     */
+    public synchronized boolean append(PlcSample sample) {
+        ByteBuffer payload = encode(sample);
+        int recordSize = RECORD_HEADER + payload.remaining();
+        if (active.buffer.remaining() < recordSize + RECORD_HEADER) {
+            if (segments.size() >= config.getMaxSegments()) {
+                return false;
+            }
+            active.buffer.force();
+            active = createSegment(writeOffset);
+        }
+        writeCrc.reset();
+        writeCrc.update(payload.duplicate());
+        MappedByteBuffer buffer = active.buffer;
+        int position = buffer.position();
+        buffer.putInt(position + 4, (int) writeCrc.getValue());
+        buffer.position(position + RECORD_HEADER);
+        buffer.put(payload);
+        // 长度最后写入，记录内容完整后才对读取方可见
+        buffer.putInt(position, recordSize - RECORD_HEADER);
+        writeOffset += recordSize;
+        return true;
+    }
+
+    private ByteBuffer encode(PlcSample sample) {
+        ByteBuffer buffer = encodeBuffer;
+        buffer.clear();
+        buffer.putLong(sample.getMappingId() != null ? sample.getMappingId() : -1L);
+        buffer.putLong(sample.getDeviceId());
+        buffer.putLong(sample.getSampleTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        buffer.putInt(sample.getSampleValue());
+        putString(buffer, sample.getDeviceCode());
+        putString(buffer, sample.getPointType());
+        putString(buffer, sample.getPlcAddress());
+        buffer.flip();
+        return buffer;
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        buffer.putShort((short) (value != null ? bytes.length : -1));
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 从指定偏移量开始读取最多 maxRecords 条记录，记录的偏移量写入 spoolOffset
+     *
+     * @return 读取的最后一条记录之后的偏移量
+     */
+    public long read(long fromOffset, int maxRecords, List<PlcSample> target) {
+        long offset = fromOffset;
+        long limit = writeOffset;
+        CRC32 crc = new CRC32();
+        while (offset < limit && target.size() < maxRecords) {
+            Map.Entry<Long, Segment> entry = segments.floorEntry(offset);
+            if (entry == null) {
+                break;
+            }
+            Segment segment = entry.getValue();
+            int position = (int) (offset - segment.baseOffset);
+            int length = position + RECORD_HEADER <= segment.buffer.capacity() ? segment.buffer.getInt(position) : 0;
+            if (length <= 0) {
+                // 分段剩余空间不足以写入下一条记录，跳到下一个分段
+                Long next = segments.higherKey(segment.baseOffset);
+                if (next == null || next <= offset) {
+                    break;
+                }
+                offset = next;
+                continue;
+            }
+            ByteBuffer payload = segment.buffer.duplicate();
+            payload.position(position + RECORD_HEADER).limit(position + RECORD_HEADER + length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != segment.buffer.getInt(position + 4)) {
+                // 损坏的记录无法定位下一条记录的边界，跳过分段的剩余部分
+                Long next = segments.higherKey(segment.baseOffset);
+                log.error("PLC预写日志记录校验失败，偏移量: {}，跳过分段 {} 的剩余记录", offset, segment.path.getFileName());
+                if (next == null) {
+                    break;
+                }
+                offset = next;
+                continue;
+            }
+            target.add(decode(payload, offset));
+            offset += RECORD_HEADER + length;
+        }
+        return offset;
+    }
+
+    private PlcSample decode(ByteBuffer buffer, long offset) {
+        PlcSample sample = new PlcSample();
+        long mappingId = buffer.getLong();
+        sample.setMappingId(mappingId >= 0 ? mappingId : null);
+        sample.setDeviceId(buffer.getLong());
+        sample.setSampleTime(LocalDateTime.ofInstant(Instant.ofEpochMilli(buffer.getLong()), ZoneId.systemDefault()));
+        sample.setSampleValue(buffer.getInt());
+        sample.setDeviceCode(getString(buffer));
+        sample.setPointType(getString(buffer));
+        sample.setPlcAddress(getString(buffer));
+        sample.setSpoolId(spoolId);
+        sample.setSpoolOffset(offset);
+        return sample;
+    }
+
+    /**
+     * 提交重放进度：偏移量之前的记录已写入数据库
+     */
+    public synchronized void commit(long offset) {
+        if (offset <= committedOffset) {
+            return;
+        }
+        try {
+            writeAtomically(COMMIT_FILE, Long.toString(offset));
+        } catch (IOException e) {
+            throw new UncheckedIOException("保存PLC预写日志提交偏移量失败", e);
+        }
+        committedOffset = offset;
+        deleteCommittedSegments();
+    }
+
+    /**
+     * 丢弃最旧的分段（预写日志已满时为新记录腾出空间）
+     *
+     * @return 是否有分段被丢弃
+     */
+    public synchronized boolean dropOldestSegment() {
+        Map.Entry<Long, Segment> oldest = segments.firstEntry();
+        Long next = segments.higherKey(oldest.getKey());
+        if (next == null) {
+            return false;
+        }
+        log.warn("PLC预写日志已满，丢弃未重放的分段: {}", oldest.getValue().path.getFileName());
+        commit(next);
+        return true;
+    }
+
+    private synchronized void deleteCommittedSegments() {
+        Map.Entry<Long, Segment> entry;
+        while ((entry = segments.firstEntry()) != null && entry.getValue() != active) {
+            Long next = segments.higherKey(entry.getKey());
+            if (next == null || next > committedOffset) {
+                break;
+            }
+            segments.remove(entry.getKey());
+            entry.getValue().delete();
+        }
+    }
+
+    /**
+     * 把已追加的记录刷到磁盘
+     */
+    public void force() {
+        Segment segment = active;
+        if (segment != null) {
+            segment.buffer.force();
+        }
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    public String getSpoolId() {
+        return spoolId;
+    }
+
+    public long getCommittedOffset() {
+        return committedOffset;
+    }
+
+    /**
+     * 获取尚未重放的字节数
+     */
+    public long getPendingBytes() {
+        return writeOffset - committedOffset;
+    }
+
+    /**
+     * 读取分段所属的预写日志标识，标识文件丢失时生成新的标识（剩余分段的记录按新标识重放）
+     */
+    private String readSpoolId() throws IOException {
+        Path idFile = directory.resolve(ID_FILE);
+        if (Files.exists(idFile)) {
+            String id = new String(Files.readAllBytes(idFile), StandardCharsets.US_ASCII).trim();
+            if (!id.isEmpty()) {
+                return id;
+            }
+        }
+        log.warn("PLC预写日志标识文件丢失，使用新的标识重放剩余分段");
+        return createSpoolId();
+    }
+
+    private String createSpoolId() throws IOException {
+        String id = UUID.randomUUID().toString();
+        writeAtomically(ID_FILE, id);
+        return id;
+    }
+
+    private void writeAtomically(String fileName, String content) throws IOException {
+        Path temp = directory.resolve(fileName + ".tmp");
+        Files.write(temp, content.getBytes(StandardCharsets.US_ASCII));
+        Files.move(temp, directory.resolve(fileName), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private long readCommittedOffset() throws IOException {
+        Path commitFile = directory.resolve(COMMIT_FILE);
+        if (!Files.exists(commitFile)) {
+            return 0;
+        }
+        return Long.parseLong(new String(Files.readAllBytes(commitFile), StandardCharsets.US_ASCII).trim());
+    }
+
+    private Segment createSegment(long baseOffset) {
+        Path path = directory.resolve(String.format("%020d%s", baseOffset, SEGMENT_SUFFIX));
+        Segment segment = mapSegment(path, baseOffset);
+        segments.put(baseOffset, segment);
+        log.debug("创建PLC预写日志分段: {}", path.getFileName());
+        return segment;
+    }
+
+    private Segment mapSegment(Path path, long baseOffset) {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, config.getSegmentSize());
+            return new Segment(baseOffset, path, buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("打开PLC预写日志分段失败: " + path, e);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        force();
+        segments.clear();
+        active = null;
+    }
+
+    /**
+     * 预写日志分段（映射在文件通道关闭后仍然有效）
+     */
+    private static final class Segment {
+        private final long baseOffset;
+        private final Path path;
+        private final MappedByteBuffer buffer;
+
+        private Segment(long baseOffset, Path path, MappedByteBuffer buffer) {
+            this.baseOffset = baseOffset;
+            this.path = path;
+            this.buffer = buffer;
+        }
+
+        private void delete() {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.warn("删除PLC预写日志分段失败: {}", path.getFileName());
+            }
+        }
+    }
+}
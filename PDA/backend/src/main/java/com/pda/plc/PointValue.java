@@ -0,0 +1,51 @@
+package com.pda.plc;
+
+import lombok.Data;
+
+/**
+ * 点位实时值（可复用的读取容器，读取方自行持有，避免每次读取分配对象）
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Data
+public class PointValue {
+
+    /**
+     * 质量：从未读取
+     */
+    public static final int QUALITY_UNKNOWN = 0;
+
+    /**
+     * 质量：读取成功
+     */
+    public static final int QUALITY_GOOD = 1;
+
+    /**
+     * 质量：最近一次读取失败（值为上一次成功读取的值）
+     */
+    public static final int QUALITY_BAD = 2;
+
+    /**
+     * 点位值
+     */
+    private int value;
+
+    /**
+     * 质量
+     */
+    private int quality;
+
+    /**
+     * 更新时间（毫秒时间戳）
+     */
+    private long timestamp;
+
+    /**
+     * 检查值是否可用
+     */
+    public boolean isGood() {
+        return quality == QUALITY_GOOD;
+    }
+}
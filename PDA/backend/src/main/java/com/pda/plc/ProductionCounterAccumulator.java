@@ -0,0 +1,325 @@
+package com.pda.plc;
+
+import com.pda.entity.DevicePointMapping.PointType;
+import com.pda.entity.WorkOrder;
+import com.pda.repository.WorkOrderRepository;
+import com.pda.stream.StateChangeEvent;
+import com.pda.stream.StateChangeEvent.Kind;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 生产计数累加器
+ * 按设备在内存中把PLC原始计数换算为派工单产量增量：识别16位寄存器回绕（65535→0）
+ * 和清零点位触发的计数清零，开始生产时记录计数基准，定期把累计产量和对应的原始计数回写派工单。
+ * 开始、结束生产和回写产量对计数状态的修改都在事务提交后生效，回滚时保持不变
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductionCounterAccumulator {
+
+    private final PlcPointCatalog plcPointCatalog;
+    private final PlcPointValueTable plcPointValueTable;
+    private final WorkOrderRepository workOrderRepository;
+    private final PlcProperties plcProperties;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 设备ID到正在生产的派工单计数状态
+     */
+    private final Map<Long, Tracker> trackers = new ConcurrentHashMap<>();
+
+    /**
+     * 应用启动后恢复进行中派工单的计数状态：基准取最近一次回写的原始计数，停机期间的计数在第一次采样时补计；
+     * 尚未回写过原始计数的派工单基准取重启后的第一次采样
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        for (WorkOrder workOrder : workOrderRepository.findByStatus("in_progress")) {
+            Tracker tracker = new Tracker(workOrder.getId(), quantityOf(workOrder), modulusOf(workOrder.getDeviceId()));
+            if (workOrder.getCounterRaw() != null) {
+                tracker.lastRaw = workOrder.getCounterRaw() & (tracker.modulus - 1);
+                tracker.flushedRaw = tracker.lastRaw;
+            }
+            trackers.putIfAbsent(workOrder.getDeviceId(), tracker);
+        }
+        log.info("生产计数累加器已恢复，进行中派工单数量: {}", trackers.size());
+    }
+
+    /**
+     * 开始生产：事务提交后记录派工单的计数基准（使用设备计数点位的最新值，没有可用值时取下一次采样）
+     */
+    public void begin(WorkOrder workOrder) {
+        Long deviceId = workOrder.getDeviceId();
+        Long workOrderId = workOrder.getId();
+        int initialQuantity = quantityOf(workOrder);
+        afterCommit(() -> {
+            Tracker tracker = new Tracker(workOrderId, initialQuantity, modulusOf(deviceId));
+            plcPointCatalog.getDataPoint(deviceId).ifPresent(point -> {
+                PointValue baseline = new PointValue();
+                if (plcPointValueTable.read(point.getIndex(), baseline) && baseline.isGood()) {
+                    tracker.lastRaw = unsigned(baseline.getValue(), tracker.modulus);
+                }
+            });
+            Tracker previous = trackers.put(deviceId, tracker);
+            if (previous != null && !previous.workOrderId.equals(workOrderId)) {
+                log.warn("设备 {} 上的派工单 {} 计数状态被派工单 {} 替换", deviceId, previous.workOrderId, workOrderId);
+            }
+            log.debug("派工单 {} 开始计数，设备: {}，基准: {}", workOrderId, deviceId, tracker.lastRaw);
+        });
+    }
+
+    /**
+     * 恢复生产：事务提交后继续累计，设备上已有该派工单的计数状态时保持不变；
+     * 没有时（例如暂停期间重启）基准取最近一次回写的原始计数，暂停期间的计数在第一次采样时补计
+     */
+    public void resume(WorkOrder workOrder) {
+        Long deviceId = workOrder.getDeviceId();
+        Long workOrderId = workOrder.getId();
+        int initialQuantity = quantityOf(workOrder);
+        Long counterRaw = workOrder.getCounterRaw();
+        afterCommit(() -> {
+            Tracker current = trackers.get(deviceId);
+            if (current != null && current.workOrderId.equals(workOrderId)) {
+                return;
+            }
+            Tracker tracker = new Tracker(workOrderId, initialQuantity, modulusOf(deviceId));
+            if (counterRaw != null) {
+                tracker.lastRaw = counterRaw & (tracker.modulus - 1);
+                tracker.flushedRaw = tracker.lastRaw;
+            }
+            Tracker previous = trackers.put(deviceId, tracker);
+            if (previous != null) {
+                log.warn("设备 {} 上的派工单 {} 计数状态被派工单 {} 替换", deviceId, previous.workOrderId, workOrderId);
+            }
+            log.debug("派工单 {} 恢复计数，设备: {}，基准: {}", workOrderId, deviceId, tracker.lastRaw);
+        });
+    }
+
+    /**
+     * 结束生产：事务提交后移除派工单的计数状态（回滚时派工单仍在生产，继续计数）
+     */
+    public void finish(WorkOrder workOrder) {
+        Long deviceId = workOrder.getDeviceId();
+        Long workOrderId = workOrder.getId();
+        afterCommit(() -> {
+            Tracker tracker = trackers.get(deviceId);
+            if (tracker != null && tracker.workOrderId.equals(workOrderId)) {
+                trackers.remove(deviceId, tracker);
+            }
+        });
+    }
+
+    /**
+     * 处理一次点位采样（在通信线程中调用，不访问数据库）
+     */
+    public void onSample(PlcPoint point, int value) {
+        Tracker tracker = trackers.get(point.getDeviceId());
+        if (tracker == null) {
+            return;
+        }
+        if (point.getPointType() == PointType.RESET) {
+            if (value != 0) {
+                tracker.markReset(System.nanoTime());
+            }
+            return;
+        }
+        if (point.getPointType() == PointType.DATA
+                && plcPointCatalog.getDataPoint(point.getDeviceId())
+                        .map(dataPoint -> dataPoint.getIndex() == point.getIndex()).orElse(false)) {
+            onCounter(point.getDeviceId(), value);
+        }
+    }
+
+    /**
+     * 处理设备的原始计数值
+     */
+    public void onCounter(Long deviceId, int rawValue) {
+        Tracker tracker = trackers.get(deviceId);
+        if (tracker == null) {
+            return;
+        }
+        PlcProperties.Accumulator config = plcProperties.getAccumulator();
+        long delta = tracker.accept(unsigned(rawValue, tracker.modulus), config.getWrapWindow(),
+                System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(config.getResetWindow()));
+        if (delta < 0) {
+            log.info("检测到设备 {} 计数清零，派工单: {}", deviceId, tracker.workOrderId);
+        }
+    }
+
+    /**
+     * 定期回写有变化的派工单产量和对应的原始计数（事务提交后记录已回写的值）
+     */
+    @Scheduled(fixedDelayString = "${app.plc.accumulator.flush-interval:2000}")
+    @Transactional
+    public int flush() {
+        List<Long> flushedWorkOrderIds = new ArrayList<>();
+        List<Runnable> flushed = new ArrayList<>();
+        for (Tracker tracker : trackers.values()) {
+            int quantity;
+            long raw;
+            synchronized (tracker) {
+                quantity = tracker.quantity();
+                raw = tracker.lastRaw;
+            }
+            if (quantity == tracker.flushedQuantity && raw == tracker.flushedRaw) {
+                continue;
+            }
+            // 条件更新：派工单已被停止或完成时不覆盖结束时写入的产量
+            if (workOrderRepository.updateCountedQuantity(tracker.workOrderId, quantity, raw >= 0 ? raw : null) > 0) {
+                flushedWorkOrderIds.add(tracker.workOrderId);
+            }
+            flushed.add(() -> {
+                tracker.flushedQuantity = quantity;
+                tracker.flushedRaw = raw;
+            });
+        }
+        if (!flushed.isEmpty()) {
+            afterCommit(() -> flushed.forEach(Runnable::run));
+        }
+        if (!flushedWorkOrderIds.isEmpty()) {
+            log.debug("回写派工单产量，派工单数量: {}", flushedWorkOrderIds.size());
+            eventPublisher.publishEvent(StateChangeEvent.of(Kind.WORK_ORDER, flushedWorkOrderIds));
+        }
+        return flushedWorkOrderIds.size();
+    }
+
+    /**
+     * 获取设备当前正在累计的产量
+     */
+    public OptionalInt getQuantity(Long deviceId) {
+        Tracker tracker = trackers.get(deviceId);
+        return tracker != null ? OptionalInt.of(tracker.quantity()) : OptionalInt.empty();
+    }
+
+    /**
+     * 获取派工单当前累计的产量（不结束计数，设备上正在计数的不是该派工单时为空）
+     */
+    public OptionalInt getQuantity(WorkOrder workOrder) {
+        Tracker tracker = trackers.get(workOrder.getDeviceId());
+        if (tracker == null || !tracker.workOrderId.equals(workOrder.getId())) {
+            return OptionalInt.empty();
+        }
+        return OptionalInt.of(tracker.quantity());
+    }
+
+    /**
+     * 在当前事务提交后（没有事务时立即）修改计数状态
+     */
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private long modulusOf(Long deviceId) {
+        int registerCount = plcPointCatalog.getDataPoint(deviceId).map(PlcPoint::getRegisterCount).orElse(1);
+        return 1L << (16 * registerCount);
+    }
+
+    private static int quantityOf(WorkOrder workOrder) {
+        return workOrder.getActualQuantity() != null ? workOrder.getActualQuantity() : 0;
+    }
+
+    private static long unsigned(int value, long modulus) {
+        return Integer.toUnsignedLong(value) & (modulus - 1);
+    }
+
+    /**
+     * 单个派工单的计数状态
+     */
+    private static final class Tracker {
+
+        private final Long workOrderId;
+        private final int initialQuantity;
+        private final long modulus;
+
+        /**
+         * 上一次原始计数（-1表示尚未取得基准）
+         */
+        private long lastRaw = -1;
+
+        private long produced;
+
+        /**
+         * 清零点位最近一次触发的时间（System.nanoTime，0表示没有待处理的清零信号）
+         */
+        private long resetMarkedAt;
+
+        private volatile int flushedQuantity;
+
+        private volatile long flushedRaw = -1;
+
+        private Tracker(Long workOrderId, int initialQuantity, long modulus) {
+            this.workOrderId = workOrderId;
+            this.initialQuantity = initialQuantity;
+            this.modulus = modulus;
+            this.flushedQuantity = initialQuantity;
+        }
+
+        synchronized void markReset(long now) {
+            resetMarkedAt = now == 0 ? 1 : now;
+        }
+
+        /**
+         * 累计一次原始计数，返回增量；计数清零时返回负数（清零后的计数已计入产量）。
+         * 清零信号超过有效时间仍没有出现计数回退时清除，之后的回退按回绕判定
+         */
+        synchronized long accept(long raw, long wrapWindow, long now, long resetWindowNanos) {
+            if (resetMarkedAt != 0 && now - resetMarkedAt > resetWindowNanos) {
+                resetMarkedAt = 0;
+            }
+            long previous = lastRaw;
+            lastRaw = raw;
+            if (previous < 0 || raw == previous) {
+                return 0;
+            }
+            if (raw > previous) {
+                produced += raw - previous;
+                return raw - previous;
+            }
+            boolean resetPending = resetMarkedAt != 0;
+            if (!resetPending && previous >= modulus - wrapWindow && raw < wrapWindow) {
+                // 寄存器回绕
+                long delta = raw + modulus - previous;
+                produced += delta;
+                return delta;
+            }
+            // 计数清零（清零点位触发或计数异常回退），清零后的计数都是新产量
+            resetMarkedAt = 0;
+            produced += raw;
+            return -1;
+        }
+
+        synchronized int quantity() {
+            return (int) Math.min(Integer.MAX_VALUE, initialQuantity + produced);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.pda.plc;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * 合并后的一次Modbus读取请求
+ * 覆盖 [startRegister, startRegister + registerCount) 范围内的多个点位
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Value
+public class ReadBlock {
+
+    /**
+     * 所属PLC配置ID（null表示默认PLC）
+     */
+    Long plcConfigId;
+
+    /**
+     * 起始寄存器地址
+     */
+    int startRegister;
+
+    /**
+     * 读取寄存器数量
+     */
+    int registerCount;
+
+    /**
+     * 本次读取覆盖的点位（按地址排序）
+     */
+    List<PlcPoint> points;
+
+    /**
+     * 获取点位在读取结果中的偏移量
+     */
+    public int offsetOf(PlcPoint point) {
+        return point.getRegister() - startRegister;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("D%d-D%d(%d点)", startRegister, startRegister + registerCount - 1, points.size());
+    }
+}
@@ -0,0 +1,29 @@
+package com.pda.repository;
+
+import com.pda.entity.CodeSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.util.Optional;
+
+/**
+ * 编号序列数据访问层接口
+ * 
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Repository
+public interface CodeSequenceRepository extends JpaRepository<CodeSequence, String> {
+
+    /**
+     * 查找并锁定序列（领取号段期间阻塞其他节点）
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM CodeSequence s WHERE s.sequenceKey = :sequenceKey")
+    Optional<CodeSequence> findForUpdate(@Param("sequenceKey") String sequenceKey);
+}
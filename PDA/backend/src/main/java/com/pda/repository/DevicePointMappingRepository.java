@@ -0,0 +1,48 @@
+package com.pda.repository;
+
+import com.pda.entity.DevicePointMapping;
+import com.pda.entity.DevicePointMapping.PointType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * 设备点位映射数据访问层接口
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Repository
+public interface DevicePointMappingRepository extends JpaRepository<DevicePointMapping, Long> {
+
+    /**
+     * 根据设备ID查找点位映射列表
+     */
+    List<DevicePointMapping> findByDeviceId(Long deviceId);
+
+    /**
+     * 根据设备编号查找点位映射列表
+     */
+    List<DevicePointMapping> findByDeviceCode(String deviceCode);
+
+    /**
+     * 根据点位类型查找点位映射列表
+     */
+    List<DevicePointMapping> findByPointType(PointType pointType);
+
+    /**
+     * 查找所有启用的点位映射（按设备和排序序号排列）
+     */
+    @Query("SELECT m FROM DevicePointMapping m WHERE m.enabled = true ORDER BY m.deviceId ASC, m.sortOrder ASC")
+    List<DevicePointMapping> findEnabledMappings();
+
+    /**
+     * 根据点位类型查找启用的点位映射
+     */
+    @Query("SELECT m FROM DevicePointMapping m WHERE m.enabled = true AND m.pointType = :pointType ORDER BY m.deviceId ASC")
+    List<DevicePointMapping> findEnabledMappingsByPointType(@Param("pointType") PointType pointType);
+}
@@ -1,15 +1,19 @@
 package com.pda.repository;
 
+import com.pda.dto.DeviceStatusOverview;
 import com.pda.entity.Device;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -33,6 +37,11 @@ public interface DeviceRepository extends JpaRepository<Device, Long> {
      */
     boolean existsByDeviceCode(String deviceCode);
 
+    /**
+     * 根据设备编号列表查找设备
+     */
+    List<Device> findByDeviceCodeIn(List<String> deviceCodes);
+
     /**
      * 根据设备类型查找设备列表
      */
@@ -102,6 +111,25 @@ public interface DeviceRepository extends JpaRepository<Device, Long> {
     @Query("SELECT COUNT(d) FROM Device d")
     long countAllDevices();
 
+    /**
+     * 获取设备状态总览（一次查询关联进行中的派工单和维修记录，设备类型为空时查询全部设备）
+     */
+    @Query("SELECT new com.pda.dto.DeviceStatusOverview(d.id, d.deviceCode, d.deviceName, d.deviceType, d.status, d.plcAddress, " +
+           "wo.orderNo, wo.plannedQuantity, wo.actualQuantity, wo.startTime, " +
+           "mr.id, mr.faultDescription, mr.reportTime, mr.repairPerson) " +
+           "FROM Device d " +
+           "LEFT JOIN WorkOrder wo ON wo.deviceId = d.id AND d.status = 'working' AND wo.status = 'in_progress' " +
+           "LEFT JOIN MaintenanceRecord mr ON mr.deviceId = d.id AND d.status = 'maintenance' AND mr.status IN ('reported', 'in_progress') " +
+           "WHERE (:deviceType IS NULL OR d.deviceType = :deviceType) " +
+           "ORDER BY d.id ASC, wo.startTime DESC, wo.id DESC, mr.createdTime DESC, mr.id DESC")
+    List<DeviceStatusOverview> findStatusOverview(@Param("deviceType") String deviceType);
+
+    /**
+     * 获取所有设备的ID、状态和更新时间（用于核对设备注册表）
+     */
+    @Query("SELECT d.id, d.status, d.updatedTime FROM Device d")
+    List<Object[]> findAllDeviceDigests();
+
     /**
      * 根据设备类型统计设备数量
      */
@@ -158,6 +186,13 @@ public interface DeviceRepository extends JpaRepository<Device, Long> {
     @Query("UPDATE Device d SET d.status = :status, d.updatedTime = CURRENT_TIMESTAMP WHERE d.id IN :ids")
     int updateDeviceStatusBatch(@Param("ids") List<Long> ids, @Param("status") String status);
 
+    /**
+     * 查找并锁定指定状态的设备（批量条件更新前确定实际转换的设备）
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM Device d WHERE d.id IN :ids AND d.status = :status ORDER BY d.id")
+    List<Device> findAllForUpdateByStatus(@Param("ids") Collection<Long> ids, @Param("status") String status);
+
     /**
      * 更新设备状态
      */
@@ -165,6 +200,16 @@ public interface DeviceRepository extends JpaRepository<Device, Long> {
     @Query("UPDATE Device d SET d.status = :status, d.updatedTime = CURRENT_TIMESTAMP WHERE d.id = :id")
     int updateDeviceStatus(@Param("id") Long id, @Param("status") String status);
 
+    /**
+     * 条件更新设备状态（仅当前状态为预期状态时更新）
+     */
+    @Modifying
+    @Query("UPDATE Device d SET d.status = :targetStatus, d.updatedTime = CURRENT_TIMESTAMP " +
+           "WHERE d.id = :id AND d.status = :expectedStatus")
+    int compareAndSetStatus(@Param("id") Long id,
+                            @Param("expectedStatus") String expectedStatus,
+                            @Param("targetStatus") String targetStatus);
+
     /**
      * 根据设备编号更新设备状态
      */
@@ -268,6 +268,26 @@ public interface MaintenanceRecordRepository extends JpaRepository<MaintenanceRe
            "OR mr.faultDescription LIKE %:keyword% OR mr.repairDescription LIKE %:keyword% ORDER BY mr.reportTime DESC")
     Page<MaintenanceRecord> searchMaintenanceRecordsByKeyword(@Param("keyword") String keyword, Pageable pageable);
 
+    /**
+     * 游标分页搜索维修记录（按创建时间、ID倒序，从游标之后开始；报修时间可能为空，不能作为游标）
+     */
+    @Query("SELECT mr FROM MaintenanceRecord mr WHERE (mr.deviceCode LIKE %:keyword% " +
+           "OR mr.faultDescription LIKE %:keyword% OR mr.repairDescription LIKE %:keyword%) " +
+           "AND (:cursorTime IS NULL OR mr.createdTime < :cursorTime " +
+           "OR (mr.createdTime = :cursorTime AND mr.id < :cursorId)) " +
+           "ORDER BY mr.createdTime DESC, mr.id DESC")
+    List<MaintenanceRecord> seekMaintenanceRecordsByKeyword(@Param("keyword") String keyword,
+                                                            @Param("cursorTime") LocalDateTime cursorTime,
+                                                            @Param("cursorId") Long cursorId,
+                                                            Pageable pageable);
+
+    /**
+     * 统计搜索到的维修记录数量
+     */
+    @Query("SELECT COUNT(mr) FROM MaintenanceRecord mr WHERE mr.deviceCode LIKE %:keyword% " +
+           "OR mr.faultDescription LIKE %:keyword% OR mr.repairDescription LIKE %:keyword%")
+    long countMaintenanceRecordsByKeyword(@Param("keyword") String keyword);
+
     /**
      * 获取最近的维修记录
      */
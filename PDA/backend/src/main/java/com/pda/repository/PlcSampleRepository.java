@@ -0,0 +1,37 @@
+package com.pda.repository;
+
+import com.pda.entity.PlcSample;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * PLC采样记录数据访问层接口
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Repository
+public interface PlcSampleRepository extends JpaRepository<PlcSample, Long> {
+
+    /**
+     * 查找设备在指定时间范围内的采样记录
+     */
+    @Query("SELECT s FROM PlcSample s WHERE s.deviceId = :deviceId AND s.sampleTime BETWEEN :startTime AND :endTime ORDER BY s.sampleTime ASC")
+    List<PlcSample> findDeviceSamplesBetween(@Param("deviceId") Long deviceId,
+                                             @Param("startTime") LocalDateTime startTime,
+                                             @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * 删除指定时间之前的采样记录
+     */
+    @Modifying
+    @Query("DELETE FROM PlcSample s WHERE s.sampleTime < :beforeTime")
+    int deleteSamplesBefore(@Param("beforeTime") LocalDateTime beforeTime);
+}
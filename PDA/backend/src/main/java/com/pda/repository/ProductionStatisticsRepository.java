@@ -251,6 +251,42 @@ public interface ProductionStatisticsRepository extends JpaRepository<Production
     @Query("DELETE FROM ProductionStatistics ps WHERE ps.statDate < :beforeDate")
     int deleteStatisticsBeforeDate(@Param("beforeDate") LocalDate beforeDate);
 
+    /**
+     * 游标分页查询生产统计（按统计日期、ID倒序，从游标之后开始）
+     */
+    @Query("SELECT ps FROM ProductionStatistics ps " +
+           "WHERE (:statType IS NULL OR ps.statType = :statType) " +
+           "AND (:deviceType IS NULL OR ps.deviceType = :deviceType) " +
+           "AND (:deviceCode IS NULL OR ps.deviceCode LIKE %:deviceCode%) " +
+           "AND (:startDate IS NULL OR ps.statDate >= :startDate) " +
+           "AND (:endDate IS NULL OR ps.statDate <= :endDate) " +
+           "AND (:cursorDate IS NULL OR ps.statDate < :cursorDate " +
+           "OR (ps.statDate = :cursorDate AND ps.id < :cursorId)) " +
+           "ORDER BY ps.statDate DESC, ps.id DESC")
+    List<ProductionStatistics> seekStatisticsWithConditions(@Param("statType") String statType,
+                                                            @Param("deviceType") String deviceType,
+                                                            @Param("deviceCode") String deviceCode,
+                                                            @Param("startDate") LocalDate startDate,
+                                                            @Param("endDate") LocalDate endDate,
+                                                            @Param("cursorDate") LocalDate cursorDate,
+                                                            @Param("cursorId") Long cursorId,
+                                                            Pageable pageable);
+
+    /**
+     * 统计符合条件的生产统计记录数量
+     */
+    @Query("SELECT COUNT(ps) FROM ProductionStatistics ps " +
+           "WHERE (:statType IS NULL OR ps.statType = :statType) " +
+           "AND (:deviceType IS NULL OR ps.deviceType = :deviceType) " +
+           "AND (:deviceCode IS NULL OR ps.deviceCode LIKE %:deviceCode%) " +
+           "AND (:startDate IS NULL OR ps.statDate >= :startDate) " +
+           "AND (:endDate IS NULL OR ps.statDate <= :endDate)")
+    long countStatisticsWithConditions(@Param("statType") String statType,
+                                       @Param("deviceType") String deviceType,
+                                       @Param("deviceCode") String deviceCode,
+                                       @Param("startDate") LocalDate startDate,
+                                       @Param("endDate") LocalDate endDate);
+
     /**
      * 搜索统计记录
      */
@@ -263,6 +299,24 @@ public interface ProductionStatisticsRepository extends JpaRepository<Production
     @Query("SELECT ps FROM ProductionStatistics ps WHERE ps.deviceCode LIKE %:keyword% OR ps.deviceType LIKE %:keyword% ORDER BY ps.statDate DESC")
     Page<ProductionStatistics> searchStatisticsByKeyword(@Param("keyword") String keyword, Pageable pageable);
 
+    /**
+     * 游标分页搜索统计记录（按统计日期、ID倒序，从游标之后开始）
+     */
+    @Query("SELECT ps FROM ProductionStatistics ps WHERE (ps.deviceCode LIKE %:keyword% OR ps.deviceType LIKE %:keyword%) " +
+           "AND (:cursorDate IS NULL OR ps.statDate < :cursorDate " +
+           "OR (ps.statDate = :cursorDate AND ps.id < :cursorId)) " +
+           "ORDER BY ps.statDate DESC, ps.id DESC")
+    List<ProductionStatistics> seekStatisticsByKeyword(@Param("keyword") String keyword,
+                                                       @Param("cursorDate") LocalDate cursorDate,
+                                                       @Param("cursorId") Long cursorId,
+                                                       Pageable pageable);
+
+    /**
+     * 统计搜索到的统计记录数量
+     */
+    @Query("SELECT COUNT(ps) FROM ProductionStatistics ps WHERE ps.deviceCode LIKE %:keyword% OR ps.deviceType LIKE %:keyword%")
+    long countStatisticsByKeyword(@Param("keyword") String keyword);
+
     /**
      * 获取最近的统计记录
      */
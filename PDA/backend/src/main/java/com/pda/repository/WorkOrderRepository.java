@@ -4,12 +4,15 @@ import com.pda.entity.WorkOrder;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -110,6 +113,42 @@ public interface WorkOrderRepository extends JpaRepository<WorkOrder, Long> {
                                                  @Param("endTime") LocalDateTime endTime,
                                                  Pageable pageable);
 
+    /**
+     * 游标分页查询派工单（按创建时间、ID倒序，从游标之后开始）
+     */
+    @Query("SELECT wo FROM WorkOrder wo " +
+           "WHERE (:orderNo IS NULL OR wo.orderNo LIKE %:orderNo%) " +
+           "AND (:deviceCode IS NULL OR wo.deviceCode LIKE %:deviceCode%) " +
+           "AND (:status IS NULL OR wo.status = :status) " +
+           "AND (:startTime IS NULL OR wo.startTime >= :startTime) " +
+           "AND (:endTime IS NULL OR wo.startTime <= :endTime) " +
+           "AND (:cursorTime IS NULL OR wo.createdTime < :cursorTime " +
+           "OR (wo.createdTime = :cursorTime AND wo.id < :cursorId)) " +
+           "ORDER BY wo.createdTime DESC, wo.id DESC")
+    List<WorkOrder> seekWorkOrdersWithConditions(@Param("orderNo") String orderNo,
+                                                 @Param("deviceCode") String deviceCode,
+                                                 @Param("status") String status,
+                                                 @Param("startTime") LocalDateTime startTime,
+                                                 @Param("endTime") LocalDateTime endTime,
+                                                 @Param("cursorTime") LocalDateTime cursorTime,
+                                                 @Param("cursorId") Long cursorId,
+                                                 Pageable pageable);
+
+    /**
+     * 统计符合条件的派工单数量
+     */
+    @Query("SELECT COUNT(wo) FROM WorkOrder wo " +
+           "WHERE (:orderNo IS NULL OR wo.orderNo LIKE %:orderNo%) " +
+           "AND (:deviceCode IS NULL OR wo.deviceCode LIKE %:deviceCode%) " +
+           "AND (:status IS NULL OR wo.status = :status) " +
+           "AND (:startTime IS NULL OR wo.startTime >= :startTime) " +
+           "AND (:endTime IS NULL OR wo.startTime <= :endTime)")
+    long countWorkOrdersWithConditions(@Param("orderNo") String orderNo,
+                                       @Param("deviceCode") String deviceCode,
+                                       @Param("status") String status,
+                                       @Param("startTime") LocalDateTime startTime,
+                                       @Param("endTime") LocalDateTime endTime);
+
     /**
      * 查找指定时间范围内的派工单
      */
@@ -197,6 +236,50 @@ public interface WorkOrderRepository extends JpaRepository<WorkOrder, Long> {
     @Query("UPDATE WorkOrder wo SET wo.status = 'completed', wo.endTime = :endTime, wo.actualQuantity = :actualQuantity, wo.updatedTime = CURRENT_TIMESTAMP WHERE wo.id = :id")
     int completeProduction(@Param("id") Long id, @Param("endTime") LocalDateTime endTime, @Param("actualQuantity") Integer actualQuantity);
 
+    /**
+     * 条件更新：当前状态在允许的来源状态中时开始生产
+     */
+    @Modifying
+    @Query("UPDATE WorkOrder wo SET wo.status = 'in_progress', wo.startTime = :startTime, wo.updatedTime = :startTime " +
+           "WHERE wo.id = :id AND wo.status IN :fromStatuses")
+    int transitionToInProgress(@Param("id") Long id, @Param("fromStatuses") List<String> fromStatuses,
+                               @Param("startTime") LocalDateTime startTime);
+
+    /**
+     * 条件更新：已暂停的派工单恢复生产（保留开始时间）
+     */
+    @Modifying
+    @Query("UPDATE WorkOrder wo SET wo.status = 'in_progress', wo.updatedTime = CURRENT_TIMESTAMP " +
+           "WHERE wo.id = :id AND wo.status = 'paused'")
+    int resumeFromPaused(@Param("id") Long id);
+
+    /**
+     * 批量条件更新：当前状态在允许的来源状态中时开始生产
+     */
+    @Modifying
+    @Query("UPDATE WorkOrder wo SET wo.status = 'in_progress', wo.startTime = :startTime, wo.updatedTime = :startTime " +
+           "WHERE wo.id IN :ids AND wo.status IN :fromStatuses")
+    int transitionAllToInProgress(@Param("ids") Collection<Long> ids, @Param("fromStatuses") List<String> fromStatuses,
+                                  @Param("startTime") LocalDateTime startTime);
+
+    /**
+     * 查找并锁定派工单（批量派工期间状态不会被其他操作修改）
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT wo FROM WorkOrder wo WHERE wo.id IN :ids ORDER BY wo.id")
+    List<WorkOrder> findAllForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 条件更新：当前状态在允许的来源状态中时结束生产（实际产量为空时保留原值）
+     */
+    @Modifying
+    @Query("UPDATE WorkOrder wo SET wo.status = :status, wo.endTime = :endTime, " +
+           "wo.actualQuantity = COALESCE(:actualQuantity, wo.actualQuantity), wo.updatedTime = :endTime " +
+           "WHERE wo.id = :id AND wo.status IN :fromStatuses")
+    int transitionToFinished(@Param("id") Long id, @Param("fromStatuses") List<String> fromStatuses,
+                             @Param("status") String status, @Param("endTime") LocalDateTime endTime,
+                             @Param("actualQuantity") Integer actualQuantity);
+
     /**
      * 取消派工单
      */
@@ -239,6 +322,18 @@ public interface WorkOrderRepository extends JpaRepository<WorkOrder, Long> {
            "ORDER BY date DESC")
     List<Object[]> getProductionStatistics(@Param("startTime") LocalDateTime startTime);
 
+    /**
+     * 统计时间范围内创建的派工单生产效率（派工单数, 已完成数, 计划产量合计, 实际产量合计）
+     */
+    @Query("SELECT COUNT(wo), " +
+           "SUM(CASE WHEN wo.status = 'completed' THEN 1 ELSE 0 END), " +
+           "SUM(wo.plannedQuantity), " +
+           "SUM(wo.actualQuantity) " +
+           "FROM WorkOrder wo " +
+           "WHERE wo.createdTime BETWEEN :startTime AND :endTime")
+    List<Object[]> getProductionEfficiencyTotals(@Param("startTime") LocalDateTime startTime,
+                                                 @Param("endTime") LocalDateTime endTime);
+
     /**
      * 获取设备生产统计
      */
@@ -265,6 +360,36 @@ public interface WorkOrderRepository extends JpaRepository<WorkOrder, Long> {
     @Query("SELECT wo FROM WorkOrder wo WHERE wo.orderNo LIKE %:keyword% OR wo.deviceCode LIKE %:keyword% ORDER BY wo.createdTime DESC")
     Page<WorkOrder> searchWorkOrdersByKeyword(@Param("keyword") String keyword, Pageable pageable);
 
+    /**
+     * 游标分页搜索派工单（按创建时间、ID倒序，从游标之后开始）
+     */
+    @Query("SELECT wo FROM WorkOrder wo WHERE (wo.orderNo LIKE %:keyword% OR wo.deviceCode LIKE %:keyword%) " +
+           "AND (:cursorTime IS NULL OR wo.createdTime < :cursorTime " +
+           "OR (wo.createdTime = :cursorTime AND wo.id < :cursorId)) " +
+           "ORDER BY wo.createdTime DESC, wo.id DESC")
+    List<WorkOrder> seekWorkOrdersByKeyword(@Param("keyword") String keyword,
+                                            @Param("cursorTime") LocalDateTime cursorTime,
+                                            @Param("cursorId") Long cursorId,
+                                            Pageable pageable);
+
+    /**
+     * 统计搜索到的派工单数量
+     */
+    @Query("SELECT COUNT(wo) FROM WorkOrder wo WHERE wo.orderNo LIKE %:keyword% OR wo.deviceCode LIKE %:keyword%")
+    long countWorkOrdersByKeyword(@Param("keyword") String keyword);
+
+    /**
+     * 查找已存在的派工单号（批量导入时一次校验一批编号）
+     */
+    @Query("SELECT wo.orderNo FROM WorkOrder wo WHERE wo.orderNo IN :orderNos")
+    List<String> findOrderNosIn(@Param("orderNos") Collection<String> orderNos);
+
+    /**
+     * 根据派工单号查找派工单ID
+     */
+    @Query("SELECT wo.id FROM WorkOrder wo WHERE wo.orderNo IN :orderNos")
+    List<Long> findIdsByOrderNoIn(@Param("orderNos") Collection<String> orderNos);
+
     /**
      * 获取最近的派工单
      */
@@ -316,4 +441,20 @@ public interface WorkOrderRepository extends JpaRepository<WorkOrder, Long> {
                    "ORDER BY month DESC, wo.device_code", nativeQuery = true)
     List<Object[]> getMonthlyProductionReport(@Param("startTime") LocalDateTime startTime,
                                              @Param("endTime") LocalDateTime endTime);
-}
\ No newline at end of file
+
+    /**
+     * 更新实际产量
+     */
+    @Modifying
+    @Query("UPDATE WorkOrder wo SET wo.actualQuantity = :actualQuantity, wo.updatedTime = CURRENT_TIMESTAMP WHERE wo.id = :id")
+    int updateActualQuantity(@Param("id") Long id, @Param("actualQuantity") Integer actualQuantity);
+
+    /**
+     * 条件更新：派工单仍在进行中时回写PLC累计的产量和对应的原始计数（已结束的派工单不会被覆盖）
+     */
+    @Modifying
+    @Query("UPDATE WorkOrder wo SET wo.actualQuantity = :actualQuantity, wo.counterRaw = :counterRaw, " +
+           "wo.updatedTime = CURRENT_TIMESTAMP WHERE wo.id = :id AND wo.status = 'in_progress'")
+    int updateCountedQuantity(@Param("id") Long id, @Param("actualQuantity") Integer actualQuantity,
+                              @Param("counterRaw") Long counterRaw);
+}
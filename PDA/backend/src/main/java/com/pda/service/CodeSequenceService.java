@@ -0,0 +1,48 @@
+package com.pda.service;
+
+import java.util.Collection;
+import java.util.function.LongSupplier;
+
+/**
+ * 编号序列服务接口
+ * 
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+public interface CodeSequenceService {
+
+    /**
+     * 获取序列的下一个序号（使用默认号段大小）
+     *
+     * @param name  序列名称（如 WO）
+     * @param scope 序列范围（如日期），范围变化后从新序列开始分配
+     * @param seed  序列首次创建时已有的最大序号（用于接续历史数据）
+     */
+    long next(String name, String scope, LongSupplier seed);
+
+    /**
+     * 获取序列的下一个序号
+     *
+     * @param blockSize 每次从数据库领取的号段大小，号段中未用完的序号在重启后不再使用
+     */
+    long next(String name, String scope, int blockSize, LongSupplier seed);
+
+    /**
+     * 从已有编号中解析最大序号（编号格式为 前缀 + 数字）
+     */
+    static long maxSequence(Collection<String> codes, String prefix) {
+        long maxSequence = 0;
+        for (String code : codes) {
+            if (code == null || !code.startsWith(prefix)) {
+                continue;
+            }
+            try {
+                maxSequence = Math.max(maxSequence, Long.parseLong(code.substring(prefix.length())));
+            } catch (NumberFormatException e) {
+                // 忽略格式错误的编号
+            }
+        }
+        return maxSequence;
+    }
+}
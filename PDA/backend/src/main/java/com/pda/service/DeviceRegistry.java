@@ -0,0 +1,351 @@
+package com.pda.service;
+
+import com.pda.entity.Device;
+import com.pda.repository.DeviceRepository;
+import com.pda.stream.StateChangeEvent;
+import com.pda.stream.StateChangeEvent.Kind;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * 设备注册表
+ * 在内存中保存全部设备，按ID、编号、类型和状态建立索引；设备写入在事务提交后同步更新注册表，
+ * 读取不访问数据库。写入时整体替换不可变快照，读取方始终看到一致的索引。
+ * 返回的设备都是副本，调用方修改不会影响注册表。
+ * 快照同时携带按（类型, 状态）增量维护的设备计数；定期按行（ID, 状态, 更新时间）与数据库核对，
+ * 重新读取不一致的设备。
+ * 每次写入发布设备状态变化事件，用于推送给订阅的客户端
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DeviceRegistry {
+
+    private final DeviceRepository deviceRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * 根据ID查找设备
+     */
+    public Optional<Device> findById(Long id) {
+        return Optional.ofNullable(snapshot().byId.get(id)).map(DeviceRegistry::copyOf);
+    }
+
+    /**
+     * 根据设备编号查找设备
+     */
+    public Optional<Device> findByDeviceCode(String deviceCode) {
+        return Optional.ofNullable(snapshot().byCode.get(deviceCode)).map(DeviceRegistry::copyOf);
+    }
+
+    /**
+     * 获取设备状态（不复制设备）
+     */
+    public Optional<String> getStatus(Long id) {
+        Device device = snapshot().byId.get(id);
+        return device != null ? Optional.ofNullable(device.getStatus()) : Optional.empty();
+    }
+
+    /**
+     * 根据设备编号获取设备状态（不复制设备）
+     */
+    public Optional<String> getStatus(String deviceCode) {
+        Device device = snapshot().byCode.get(deviceCode);
+        return device != null ? Optional.ofNullable(device.getStatus()) : Optional.empty();
+    }
+
+    /**
+     * 检查设备编号是否存在
+     */
+    public boolean containsDeviceCode(String deviceCode) {
+        return snapshot().byCode.containsKey(deviceCode);
+    }
+
+    /**
+     * 获取全部设备（按ID排序）
+     */
+    public List<Device> findAll() {
+        return copyOf(snapshot().byId.values());
+    }
+
+    /**
+     * 根据设备类型查找设备
+     */
+    public List<Device> findByDeviceType(String deviceType) {
+        return copyOf(snapshot().byType.getOrDefault(deviceType, Collections.emptyList()));
+    }
+
+    /**
+     * 根据状态查找设备
+     */
+    public List<Device> findByStatus(String status) {
+        return copyOf(snapshot().byStatus.getOrDefault(status, Collections.emptyList()));
+    }
+
+    /**
+     * 根据设备类型和状态查找设备
+     */
+    public List<Device> findByDeviceTypeAndStatus(String deviceType, String status) {
+        List<Device> devices = new ArrayList<>();
+        for (Device device : snapshot().byType.getOrDefault(deviceType, Collections.emptyList())) {
+            if (Objects.equals(status, device.getStatus())) {
+                devices.add(copyOf(device));
+            }
+        }
+        return devices;
+    }
+
+    /**
+     * 获取设备（类型, 状态）计数
+     */
+    public DeviceStatusCounters getStatusCounters() {
+        return snapshot().counters;
+    }
+
+    /**
+     * 定期按行（ID, 状态, 更新时间）核对注册表与数据库，重新读取不一致、新增和已删除的设备
+     * （例如绕过服务直接修改了数据库；通过服务的状态更新在内存中不带数据库的更新时间，也会在此同步）
+     */
+    @Scheduled(fixedDelayString = "${app.device.statistics-reconcile-interval:300000}",
+               initialDelayString = "${app.device.statistics-reconcile-interval:300000}")
+    public void reconcile() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        Set<Long> changedIds = new HashSet<>();
+        Set<Long> removedIds = new HashSet<>(current.byId.keySet());
+        int statusMismatches = 0;
+        for (Object[] row : deviceRepository.findAllDeviceDigests()) {
+            Long id = (Long) row[0];
+            Device device = current.byId.get(id);
+            removedIds.remove(id);
+            if (device == null || !Objects.equals(row[1], device.getStatus())) {
+                changedIds.add(id);
+                statusMismatches++;
+            } else if (!Objects.equals(row[2], device.getUpdatedTime())) {
+                changedIds.add(id);
+            }
+        }
+        if (changedIds.isEmpty() && removedIds.isEmpty()) {
+            return;
+        }
+
+        List<Device> reloaded = copyOf(deviceRepository.findAllById(changedIds));
+        synchronized (this) {
+            // 核对期间注册表有变化时跳过本次核对，避免用过期的数据覆盖
+            if (snapshot != current) {
+                return;
+            }
+            apply(next -> {
+                removedIds.forEach(next::remove);
+                changedIds.forEach(next::remove);
+                reloaded.forEach(device -> next.put(device.getId(), device));
+            });
+        }
+        if (statusMismatches > 0 || !removedIds.isEmpty()) {
+            log.warn("设备注册表与数据库不一致，已重新读取 - 状态不一致或新增: {}，已删除: {}，更新时间不一致: {}",
+                    statusMismatches, removedIds.size(), changedIds.size() - statusMismatches);
+        } else {
+            log.debug("设备注册表已同步更新时间不一致的设备: {}", changedIds.size());
+        }
+        List<Long> ids = new ArrayList<>(changedIds);
+        ids.addAll(removedIds);
+        eventPublisher.publishEvent(StateChangeEvent.of(Kind.DEVICE, ids));
+    }
+
+    /**
+     * 保存设备后更新注册表（当前事务提交后生效）
+     */
+    public void put(Device device) {
+        Device stored = copyOf(device);
+        afterCommit(next -> next.put(stored.getId(), stored));
+        eventPublisher.publishEvent(StateChangeEvent.of(Kind.DEVICE, stored.getId()));
+    }
+
+    /**
+     * 批量保存设备后更新注册表（当前事务提交后生效）
+     */
+    public void putAll(Collection<Device> devices) {
+        List<Device> stored = copyOf(devices);
+        afterCommit(next -> stored.forEach(device -> next.put(device.getId(), device)));
+        eventPublisher.publishEvent(StateChangeEvent.of(Kind.DEVICE,
+                stored.stream().map(Device::getId).collect(Collectors.toList())));
+    }
+
+    /**
+     * 删除设备后更新注册表（当前事务提交后生效）
+     */
+    public void remove(Long id) {
+        afterCommit(next -> next.remove(id));
+        eventPublisher.publishEvent(StateChangeEvent.of(Kind.DEVICE, id));
+    }
+
+    /**
+     * 更新设备状态后更新注册表（当前事务提交后生效）
+     */
+    public void updateStatus(Collection<Long> ids, String status) {
+        List<Long> updatedIds = new ArrayList<>(ids);
+        afterCommit(next -> updatedIds.forEach(id -> next.computeIfPresent(id, (key, device) -> withStatus(device, status))));
+        eventPublisher.publishEvent(StateChangeEvent.of(Kind.DEVICE, updatedIds));
+    }
+
+    /**
+     * 更新全部设备状态后更新注册表（当前事务提交后生效）
+     */
+    public void updateAllStatuses(String status) {
+        afterCommit(next -> next.replaceAll((key, device) -> withStatus(device, status)));
+        eventPublisher.publishEvent(StateChangeEvent.all(Kind.DEVICE));
+    }
+
+    /**
+     * 从数据库重新读取单个设备并立即更新注册表（用于条件更新未命中时纠正内存中的过期状态）
+     *
+     * @return 数据库中的设备，不存在时为空
+     */
+    public Optional<Device> refresh(Long id) {
+        Optional<Device> device = deviceRepository.findById(id).map(DeviceRegistry::copyOf);
+        apply(next -> {
+            if (device.isPresent()) {
+                next.put(id, device.get());
+            } else {
+                next.remove(id);
+            }
+        });
+        eventPublisher.publishEvent(StateChangeEvent.of(Kind.DEVICE, id));
+        return device.map(DeviceRegistry::copyOf);
+    }
+
+    /**
+     * 从数据库重新加载全部设备
+     */
+    public synchronized void reload() {
+        Map<Long, Device> devices = new TreeMap<>();
+        for (Device device : deviceRepository.findAll()) {
+            devices.put(device.getId(), copyOf(device));
+        }
+        snapshot = new Snapshot(devices, DeviceStatusCounters.of(devices.values()));
+        log.debug("设备注册表已加载，设备数量: {}", devices.size());
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    reload();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 在当前事务提交后（没有事务时立即）以写时复制方式修改注册表
+     */
+    private void afterCommit(Consumer<Map<Long, Device>> change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    private synchronized void apply(Consumer<Map<Long, Device>> change) {
+        if (snapshot == null) {
+            // 尚未加载时不需要增量更新，首次读取会加载最新数据
+            return;
+        }
+        Map<Long, Device> previous = snapshot.byId;
+        Map<Long, Device> next = new TreeMap<>(previous);
+        change.accept(next);
+
+        // 按变化的设备增量更新计数
+        DeviceStatusCounters counters = snapshot.counters;
+        Set<Long> ids = new HashSet<>(previous.keySet());
+        ids.addAll(next.keySet());
+        for (Long id : ids) {
+            Device before = previous.get(id);
+            Device after = next.get(id);
+            if (before != after) {
+                counters = counters.transition(before, after);
+            }
+        }
+        snapshot = new Snapshot(next, counters);
+    }
+
+    private static Device withStatus(Device device, String status) {
+        Device updated = copyOf(device);
+        updated.setStatus(status);
+        return updated;
+    }
+
+    private static List<Device> copyOf(Collection<Device> devices) {
+        List<Device> copies = new ArrayList<>(devices.size());
+        for (Device device : devices) {
+            copies.add(copyOf(device));
+        }
+        return copies;
+    }
+
+    private static Device copyOf(Device device) {
+        Device copy = new Device();
+        copy.setId(device.getId());
+        copy.setDeviceCode(device.getDeviceCode());
+        copy.setDeviceName(device.getDeviceName());
+        copy.setDeviceType(device.getDeviceType());
+        copy.setPlcAddress(device.getPlcAddress());
+        copy.setStatus(device.getStatus());
+        copy.setCreatedTime(device.getCreatedTime());
+        copy.setUpdatedTime(device.getUpdatedTime());
+        return copy;
+    }
+
+    /**
+     * 不可变的设备索引快照
+     */
+    private static final class Snapshot {
+        private final Map<Long, Device> byId;
+        private final Map<String, Device> byCode;
+        private final Map<String, List<Device>> byType;
+        private final Map<String, List<Device>> byStatus;
+        private final DeviceStatusCounters counters;
+
+        private Snapshot(Map<Long, Device> devices, DeviceStatusCounters counters) {
+            Map<String, Device> codes = new HashMap<>();
+            Map<String, List<Device>> types = new HashMap<>();
+            Map<String, List<Device>> statuses = new HashMap<>();
+            for (Device device : devices.values()) {
+                codes.put(device.getDeviceCode(), device);
+                types.computeIfAbsent(device.getDeviceType(), key -> new ArrayList<>()).add(device);
+                statuses.computeIfAbsent(device.getStatus(), key -> new ArrayList<>()).add(device);
+            }
+            this.byId = Collections.unmodifiableMap(new LinkedHashMap<>(devices));
+            this.byCode = codes;
+            this.byType = types;
+            this.byStatus = statuses;
+            this.counters = counters;
+        }
+    }
+}
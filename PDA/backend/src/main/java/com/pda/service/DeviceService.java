@@ -1,12 +1,15 @@
 package com.pda.service;
 
 import com.pda.entity.Device;
+import com.pda.enums.TransitionResult;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * 设备服务接口
@@ -118,10 +121,21 @@ public interface DeviceService {
     Page<Device> searchDevices(String keyword, Pageable pageable);
 
     /**
-     * 更新设备状态
+     * 更新设备状态（已处于目标状态时不更新并返回true）
      */
     boolean updateDeviceStatus(Long id, String status);
 
+    /**
+     * 按状态转换表条件更新设备状态（仅当前状态为 expectedStatus 时更新）
+     */
+    TransitionResult transitionDeviceStatus(Long id, String expectedStatus, String targetStatus);
+
+    /**
+     * 按状态转换表条件更新设备状态，预期状态取注册表中的当前状态
+     * （注册表中没有该设备或条件更新未命中时，从数据库重新读取设备后判断）
+     */
+    TransitionResult transitionDeviceStatus(Long id, String targetStatus);
+
     /**
      * 设置设备为工作状态
      */
@@ -142,6 +156,11 @@ public interface DeviceService {
      */
     int batchUpdateDeviceStatus(List<Long> deviceIds, String status);
 
+    /**
+     * 批量条件转换设备状态（仅转换当前状态为预期状态的设备），返回实际转换的设备ID
+     */
+    Set<Long> transitionDeviceStatuses(Collection<Long> ids, String expectedStatus, String targetStatus);
+
     /**
      * 获取设备统计信息
      */
@@ -0,0 +1,134 @@
+package com.pda.service;
+
+import com.pda.entity.Device;
+
+import java.util.*;
+
+/**
+ * 设备（类型, 状态）计数
+ * 不可变对象，每次状态变化生成新的计数，与设备注册表快照一起原子替换
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+public final class DeviceStatusCounters {
+
+    /**
+     * 设备类型 -> 状态 -> 数量（只包含大于0的数量）
+     */
+    private final Map<String, Map<String, Long>> counts;
+
+    private DeviceStatusCounters(Map<String, Map<String, Long>> counts) {
+        this.counts = counts;
+    }
+
+    /**
+     * 根据设备列表计算计数
+     */
+    public static DeviceStatusCounters of(Collection<Device> devices) {
+        Map<String, Map<String, Long>> counts = new HashMap<>();
+        for (Device device : devices) {
+            counts.computeIfAbsent(device.getDeviceType(), key -> new HashMap<>())
+                    .merge(device.getStatus(), 1L, Long::sum);
+        }
+        return new DeviceStatusCounters(counts);
+    }
+
+    /**
+     * 应用一次设备变化（新增时 before 为空，删除时 after 为空）
+     */
+    public DeviceStatusCounters transition(Device before, Device after) {
+        if (before != null && after != null
+                && Objects.equals(before.getDeviceType(), after.getDeviceType())
+                && Objects.equals(before.getStatus(), after.getStatus())) {
+            return this;
+        }
+        Map<String, Map<String, Long>> next = new HashMap<>();
+        counts.forEach((type, statuses) -> next.put(type, new HashMap<>(statuses)));
+        if (before != null) {
+            Map<String, Long> statuses = next.get(before.getDeviceType());
+            if (statuses != null) {
+                statuses.computeIfPresent(before.getStatus(), (status, count) -> count > 1 ? count - 1 : null);
+                if (statuses.isEmpty()) {
+                    next.remove(before.getDeviceType());
+                }
+            }
+        }
+        if (after != null) {
+            next.computeIfAbsent(after.getDeviceType(), key -> new HashMap<>())
+                    .merge(after.getStatus(), 1L, Long::sum);
+        }
+        return new DeviceStatusCounters(next);
+    }
+
+    /**
+     * 设备总数
+     */
+    public long getTotal() {
+        long total = 0;
+        for (Map<String, Long> statuses : counts.values()) {
+            for (Long count : statuses.values()) {
+                total += count;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 指定状态的设备数量
+     */
+    public long getCountByStatus(String status) {
+        long total = 0;
+        for (Map<String, Long> statuses : counts.values()) {
+            total += statuses.getOrDefault(status, 0L);
+        }
+        return total;
+    }
+
+    /**
+     * 设备类型分布
+     */
+    public Map<String, Long> getTypeDistribution() {
+        Map<String, Long> distribution = new HashMap<>();
+        counts.forEach((type, statuses) ->
+                distribution.put(type, statuses.values().stream().mapToLong(Long::longValue).sum()));
+        return distribution;
+    }
+
+    /**
+     * 设备状态分布
+     */
+    public Map<String, Long> getStatusDistribution() {
+        Map<String, Long> distribution = new HashMap<>();
+        counts.values().forEach(statuses -> statuses.forEach((status, count) -> distribution.merge(status, count, Long::sum)));
+        return distribution;
+    }
+
+    /**
+     * 设备类型-状态统计
+     */
+    public Map<String, Map<String, Long>> getTypeStatusStatistics() {
+        Map<String, Map<String, Long>> statistics = new HashMap<>();
+        counts.forEach((type, statuses) -> statistics.put(type, new HashMap<>(statuses)));
+        return statistics;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof DeviceStatusCounters && counts.equals(((DeviceStatusCounters) o).counts);
+    }
+
+    @Override
+    public int hashCode() {
+        return counts.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return counts.toString();
+    }
+}
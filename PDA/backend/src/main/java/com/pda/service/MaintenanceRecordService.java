@@ -1,5 +1,6 @@
 package com.pda.service;
 
+import com.pda.dto.KeysetPage;
 import com.pda.entity.MaintenanceRecord;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -215,6 +216,17 @@ public interface MaintenanceRecordService {
      */
     Page<MaintenanceRecord> searchMaintenanceRecords(String keyword, Pageable pageable);
 
+    /**
+     * 搜索维修记录（游标分页，按创建时间倒序）
+     * 
+     * @param keyword 关键词
+     * @param pageToken 续页令牌，为空时查询第一页
+     * @param size 每页数量
+     * @param withTotal 是否统计总数
+     * @return 维修记录游标分页结果
+     */
+    KeysetPage<MaintenanceRecord> searchMaintenanceRecords(String keyword, String pageToken, int size, boolean withTotal);
+
     /**
      * 检查设备是否有进行中的维修记录
      * 
@@ -1,5 +1,6 @@
 package com.pda.service;
 
+import com.pda.dto.KeysetPage;
 import com.pda.entity.ProductionStatistics;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -149,6 +150,35 @@ public interface ProductionStatisticsService {
      */
     Page<ProductionStatistics> searchProductionStatistics(String keyword, Pageable pageable);
 
+    /**
+     * 查询生产统计记录（游标分页，按统计日期倒序）
+     * 
+     * @param statisticsType 统计类型
+     * @param deviceCode 设备编号
+     * @param deviceType 设备类型
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @param pageToken 续页令牌，为空时查询第一页
+     * @param size 每页数量
+     * @param withTotal 是否统计总数
+     * @return 生产统计记录游标分页结果
+     */
+    KeysetPage<ProductionStatistics> findProductionStatisticsWithConditions(String statisticsType, String deviceCode,
+                                                                            String deviceType, LocalDate startDate,
+                                                                            LocalDate endDate, String pageToken,
+                                                                            int size, boolean withTotal);
+
+    /**
+     * 搜索生产统计记录（游标分页，按统计日期倒序）
+     * 
+     * @param keyword 关键词
+     * @param pageToken 续页令牌，为空时查询第一页
+     * @param size 每页数量
+     * @param withTotal 是否统计总数
+     * @return 生产统计记录游标分页结果
+     */
+    KeysetPage<ProductionStatistics> searchProductionStatistics(String keyword, String pageToken, int size, boolean withTotal);
+
     /**
      * 检查生产统计记录是否存在
      * 
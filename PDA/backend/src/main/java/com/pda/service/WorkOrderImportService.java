@@ -0,0 +1,27 @@
+package com.pda.service;
+
+import com.pda.dto.WorkOrderImportResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 派工单导入服务接口
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+public interface WorkOrderImportService {
+
+    /**
+     * 逐行导入CSV格式的派工单
+     * 第一行为表头，支持的列：派工单号/orderNo（为空时自动生成）、设备编号/deviceCode、计划产量/plannedQuantity、
+     * 创建人/createdBy（为空时使用上传人）；校验失败的行跳过并记录原因，其余行按批写入
+     *
+     * @param input CSV文件内容（UTF-8）
+     * @param createdBy 上传人
+     * @return 导入结果
+     */
+    WorkOrderImportResult importCsv(InputStream input, String createdBy) throws IOException;
+}
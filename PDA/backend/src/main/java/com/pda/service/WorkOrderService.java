@@ -1,6 +1,8 @@
 package com.pda.service;
 
+import com.pda.dto.KeysetPage;
 import com.pda.entity.WorkOrder;
+import com.pda.enums.TransitionResult;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -63,6 +65,21 @@ public interface WorkOrderService {
      */
     boolean startProduction(String workOrderCode);
 
+    /**
+     * 开始生产，返回状态转换结果（派工单和设备状态在同一事务中条件更新）
+     */
+    TransitionResult tryStartProduction(Long workOrderId);
+
+    /**
+     * 恢复已暂停派工单的生产
+     */
+    boolean resumeProduction(Long workOrderId);
+
+    /**
+     * 恢复已暂停派工单的生产，返回状态转换结果（保留开始时间和已累计的产量）
+     */
+    TransitionResult tryResumeProduction(Long workOrderId);
+
     /**
      * 停止生产
      */
@@ -73,6 +90,11 @@ public interface WorkOrderService {
      */
     boolean stopProduction(String workOrderCode);
 
+    /**
+     * 停止生产，返回状态转换结果
+     */
+    TransitionResult tryStopProduction(Long workOrderId);
+
     /**
      * 完成生产
      */
@@ -83,6 +105,11 @@ public interface WorkOrderService {
      */
     boolean completeProduction(String workOrderCode, Integer actualQuantity);
 
+    /**
+     * 完成生产，返回状态转换结果
+     */
+    TransitionResult tryCompleteProduction(Long workOrderId, Integer actualQuantity);
+
     /**
      * 更新实际产量
      */
@@ -145,6 +172,19 @@ public interface WorkOrderService {
      */
     Page<WorkOrder> searchWorkOrders(String keyword, Pageable pageable);
 
+    /**
+     * 游标分页查询派工单（按创建时间倒序；pageToken 为空时查询第一页，withTotal 为 false 时不统计总数）
+     */
+    KeysetPage<WorkOrder> findWorkOrdersWithConditions(String workOrderCode, String deviceCode,
+                                                       String status, LocalDateTime startTime,
+                                                       LocalDateTime endTime, String pageToken,
+                                                       int size, boolean withTotal);
+
+    /**
+     * 游标分页搜索派工单
+     */
+    KeysetPage<WorkOrder> searchWorkOrders(String keyword, String pageToken, int size, boolean withTotal);
+
     /**
      * 检查设备是否有进行中的派工单
      */
@@ -171,15 +211,25 @@ public interface WorkOrderService {
     int batchUpdateWorkOrderStatus(List<Long> workOrderIds, String status);
 
     /**
-     * 批量开始生产
+     * 批量开始生产，返回开始的派工单数量
      */
     int batchStartProduction(List<Long> workOrderIds);
 
     /**
-     * 批量停止生产
+     * 批量停止生产，返回停止的派工单数量
      */
     int batchStopProduction(List<Long> workOrderIds);
 
+    /**
+     * 批量开始生产（一个事务内集中校验并转换派工单和设备状态），按请求顺序返回每个派工单的转换结果
+     */
+    Map<Long, TransitionResult> startProductionBatch(List<Long> workOrderIds);
+
+    /**
+     * 批量停止生产，按请求顺序返回每个派工单的转换结果
+     */
+    Map<Long, TransitionResult> stopProductionBatch(List<Long> workOrderIds);
+
     /**
      * 获取派工单统计信息
      */
@@ -240,6 +290,11 @@ public interface WorkOrderService {
      */
     String generateWorkOrderCode();
 
+    /**
+     * 批量生成派工单号（一次领取足够的号段，当天序号用完时抛出IllegalStateException）
+     */
+    List<String> generateWorkOrderCodes(int count);
+
     /**
      * 检查派工单号冲突（排除指定ID）
      */
@@ -265,6 +320,16 @@ public interface WorkOrderService {
      */
     Map<String, Object> getWorkOrderProgress(Long workOrderId);
 
+    /**
+     * 批量获取派工单生产进度（一次查询），键为派工单ID
+     */
+    Map<Long, Map<String, Object>> getWorkOrdersProgress(List<Long> workOrderIds);
+
+    /**
+     * 获取全部进行中派工单的生产进度（包含设备信息）
+     */
+    List<Map<String, Object>> getInProgressWorkOrdersProgress();
+
     /**
      * 计算派工单完成率
      */
@@ -306,12 +371,17 @@ public interface WorkOrderService {
     List<WorkOrder> getLongRunningWorkOrders(int hours);
 
     /**
-     * 同步PLC数据更新实际产量
+     * 同步PLC数据更新实际产量（读取PLC时不持有事务和数据库连接）
      */
     boolean syncActualQuantityFromPLC(Long workOrderId);
 
     /**
-     * 批量同步PLC数据
+     * 批量同步PLC数据（读取PLC时不持有事务和数据库连接）
      */
     int batchSyncActualQuantityFromPLC();
-}
\ No newline at end of file
+
+    /**
+     * 根据设备PLC原始计数值累计进行中派工单的实际产量，返回回写的派工单数量
+     */
+    int applyActualQuantitiesFromPLC(Map<Long, Integer> deviceCounters);
+}
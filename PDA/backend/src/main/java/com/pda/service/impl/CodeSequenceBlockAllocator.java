@@ -0,0 +1,46 @@
+package com.pda.service.impl;
+
+import com.pda.entity.CodeSequence;
+import com.pda.repository.CodeSequenceRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.function.LongSupplier;
+
+/**
+ * 编号号段分配器
+ * 在独立事务中锁定序列行并推进号段，调用方事务回滚时已领取的号段不会被重复分配
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Component
+@RequiredArgsConstructor
+public class CodeSequenceBlockAllocator {
+
+    private final CodeSequenceRepository codeSequenceRepository;
+
+    /**
+     * 领取号段
+     *
+     * @return 号段起点，号段为 [起点, 起点 + blockSize)
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public long reserve(String sequenceKey, int blockSize, LongSupplier seed) {
+        CodeSequence sequence = codeSequenceRepository.findForUpdate(sequenceKey).orElse(null);
+        if (sequence == null) {
+            sequence = new CodeSequence();
+            sequence.setSequenceKey(sequenceKey);
+            sequence.setNextValue(seed.getAsLong() + 1);
+        }
+        long start = sequence.getNextValue();
+        sequence.setNextValue(start + blockSize);
+        sequence.setUpdatedTime(LocalDateTime.now());
+        codeSequenceRepository.saveAndFlush(sequence);
+        return start;
+    }
+}
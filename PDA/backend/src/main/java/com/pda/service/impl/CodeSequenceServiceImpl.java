@@ -0,0 +1,92 @@
+package com.pda.service.impl;
+
+import com.pda.service.CodeSequenceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 编号序列服务实现类
+ * 号段（hi/lo）分配：每个节点从数据库领取一段序号，段内序号由内存中的 AtomicLong 无锁分配，
+ * 号段用完或范围（日期）变化时才访问数据库，多线程、多节点分配的序号都不会重复
+ * 
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CodeSequenceServiceImpl implements CodeSequenceService {
+
+    private final CodeSequenceBlockAllocator codeSequenceBlockAllocator;
+
+    @Value("${app.sequence.block-size:10}")
+    private int defaultBlockSize;
+
+    /**
+     * 序列名称 -> 当前号段（每个名称只保留当前范围的号段）
+     */
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    @Override
+    public long next(String name, String scope, LongSupplier seed) {
+        return next(name, scope, defaultBlockSize, seed);
+    }
+
+    @Override
+    public long next(String name, String scope, int blockSize, LongSupplier seed) {
+        while (true) {
+            Block block = blocks.get(name);
+            if (block != null && block.scope.equals(scope)) {
+                long value = block.next.getAndIncrement();
+                if (value < block.limit) {
+                    return value;
+                }
+            }
+            synchronized (this) {
+                // 其他线程已经领取了新号段时直接重试
+                if (blocks.get(name) == block) {
+                    long start = reserve(sequenceKey(name, scope), Math.max(1, blockSize), seed);
+                    blocks.put(name, new Block(scope, start, start + Math.max(1, blockSize)));
+                }
+            }
+        }
+    }
+
+    private long reserve(String sequenceKey, int blockSize, LongSupplier seed) {
+        try {
+            return codeSequenceBlockAllocator.reserve(sequenceKey, blockSize, seed);
+        } catch (DataIntegrityViolationException e) {
+            // 其他节点同时创建了该序列，重新领取
+            log.debug("编号序列 {} 已由其他节点创建，重新领取号段", sequenceKey);
+            return codeSequenceBlockAllocator.reserve(sequenceKey, blockSize, seed);
+        }
+    }
+
+    private static String sequenceKey(String name, String scope) {
+        return scope.isEmpty() ? name : name + ":" + scope;
+    }
+
+    /**
+     * 已领取的号段 [next, limit)
+     */
+    private static final class Block {
+        private final String scope;
+        private final AtomicLong next;
+        private final long limit;
+
+        private Block(String scope, long start, long limit) {
+            this.scope = scope;
+            this.next = new AtomicLong(start);
+            this.limit = limit;
+        }
+    }
+}
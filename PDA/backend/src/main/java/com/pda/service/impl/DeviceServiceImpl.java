@@ -1,20 +1,31 @@
 package com.pda.service.impl;
 
+import com.pda.dto.DeviceStatusOverview;
 import com.pda.entity.Device;
+import com.pda.enums.DeviceStatus;
+import com.pda.enums.TransitionResult;
 import com.pda.repository.DeviceRepository;
 import com.pda.repository.WorkOrderRepository;
 import com.pda.repository.MaintenanceRecordRepository;
+import com.pda.service.CodeSequenceService;
+import com.pda.service.DeviceRegistry;
 import com.pda.service.DeviceService;
+import com.pda.service.DeviceStatusCounters;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
-import javax.annotation.PostConstruct;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.regex.Pattern;
@@ -36,6 +47,9 @@ public class DeviceServiceImpl implements DeviceService {
     private final DeviceRepository deviceRepository;
     private final WorkOrderRepository workOrderRepository;
     private final MaintenanceRecordRepository maintenanceRecordRepository;
+    private final DeviceRegistry deviceRegistry;
+    private final JdbcTemplate jdbcTemplate;
+    private final CodeSequenceService codeSequenceService;
     
     // 设备编号格式验证正则表达式
     private static final Pattern DEVICE_CODE_PATTERN = Pattern.compile("^[A-Z]{2,6}\\d{2}$");
@@ -48,6 +62,11 @@ public class DeviceServiceImpl implements DeviceService {
     
     // 设备状态列表
     private static final List<String> DEVICE_STATUSES = Arrays.asList("idle", "working", "maintenance");
+    
+    // 默认设备批量插入语句
+    private static final String INSERT_DEVICE_SQL = "INSERT INTO devices "
+            + "(device_code, device_name, device_type, plc_address, status, created_time, updated_time) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
 
     @Override
     @Transactional
@@ -56,22 +75,24 @@ public class DeviceServiceImpl implements DeviceService {
             device.setCreatedTime(LocalDateTime.now());
         }
         device.setUpdatedTime(LocalDateTime.now());
-        return deviceRepository.save(device);
+        Device saved = deviceRepository.save(device);
+        deviceRegistry.put(saved);
+        return saved;
     }
 
     @Override
     public Optional<Device> findById(Long id) {
-        return deviceRepository.findById(id);
+        return deviceRegistry.findById(id);
     }
 
     @Override
     public Optional<Device> findByDeviceCode(String deviceCode) {
-        return deviceRepository.findByDeviceCode(deviceCode);
+        return deviceRegistry.findByDeviceCode(deviceCode);
     }
 
     @Override
     public boolean existsByDeviceCode(String deviceCode) {
-        return deviceRepository.existsByDeviceCode(deviceCode);
+        return deviceRegistry.containsDeviceCode(deviceCode);
     }
 
     @Override
@@ -141,7 +162,9 @@ public class DeviceServiceImpl implements DeviceService {
         }
         
         device.setUpdatedTime(LocalDateTime.now());
-        return deviceRepository.save(device);
+        Device saved = deviceRepository.save(device);
+        deviceRegistry.put(saved);
+        return saved;
     }
 
     @Override
@@ -162,42 +185,43 @@ public class DeviceServiceImpl implements DeviceService {
         }
         
         deviceRepository.deleteById(id);
+        deviceRegistry.remove(id);
         return true;
     }
 
     @Override
     public List<Device> findAllDevices() {
-        return deviceRepository.findAll();
+        return deviceRegistry.findAll();
     }
 
     @Override
     public List<Device> findByDeviceType(String deviceType) {
-        return deviceRepository.findByDeviceType(deviceType);
+        return deviceRegistry.findByDeviceType(deviceType);
     }
 
     @Override
     public List<Device> findByStatus(String status) {
-        return deviceRepository.findByStatus(status);
+        return deviceRegistry.findByStatus(status);
     }
 
     @Override
     public List<Device> findByDeviceTypeAndStatus(String deviceType, String status) {
-        return deviceRepository.findByDeviceTypeAndStatus(deviceType, status);
+        return deviceRegistry.findByDeviceTypeAndStatus(deviceType, status);
     }
 
     @Override
     public List<Device> getIdleDevices() {
-        return deviceRepository.findByStatus("idle");
+        return deviceRegistry.findByStatus("idle");
     }
 
     @Override
     public List<Device> getWorkingDevices() {
-        return deviceRepository.findByStatus("working");
+        return deviceRegistry.findByStatus("working");
     }
 
     @Override
     public List<Device> getMaintenanceDevices() {
-        return deviceRepository.findByStatus("maintenance");
+        return deviceRegistry.findByStatus("maintenance");
     }
 
     @Override
@@ -207,7 +231,7 @@ public class DeviceServiceImpl implements DeviceService {
 
     @Override
     public List<Device> getAvailableDevicesByType(String deviceType) {
-        return deviceRepository.findByDeviceTypeAndStatus(deviceType, "idle");
+        return deviceRegistry.findByDeviceTypeAndStatus(deviceType, "idle");
     }
 
     @Override
@@ -228,21 +252,51 @@ public class DeviceServiceImpl implements DeviceService {
     @Override
     @Transactional
     public boolean updateDeviceStatus(Long id, String status) {
-        if (!DEVICE_STATUSES.contains(status)) {
-            throw new IllegalArgumentException("不支持的设备状态: " + status);
+        TransitionResult result = transitionDeviceStatus(id, status);
+        if (result != TransitionResult.APPLIED && status.equals(deviceRegistry.getStatus(id).orElse(null))) {
+            // 已处于目标状态，视为成功
+            return true;
         }
-        
-        Device device = deviceRepository.findById(id).orElse(null);
-        if (device == null) {
-            return false;
+        if (result == TransitionResult.INVALID) {
+            throw new IllegalStateException("设备状态不能从 " + deviceRegistry.getStatus(id).orElse(null)
+                    + " 转换为 " + status);
         }
-        
-        // 状态转换验证
-        if ("working".equals(status) && "maintenance".equals(device.getStatus())) {
-            throw new IllegalStateException("维修中的设备不能直接设置为工作状态");
+        return result.isApplied();
+    }
+
+    @Override
+    @Transactional
+    public TransitionResult transitionDeviceStatus(Long id, String targetStatus) {
+        String currentStatus = deviceRegistry.getStatus(id)
+                .or(() -> deviceRegistry.refresh(id).map(Device::getStatus))
+                .orElse(null);
+        if (currentStatus == null) {
+            return TransitionResult.NOT_FOUND;
         }
-        
-        return deviceRepository.updateDeviceStatus(id, status) > 0;
+        return transitionDeviceStatus(id, currentStatus, targetStatus);
+    }
+
+    @Override
+    @Transactional
+    public TransitionResult transitionDeviceStatus(Long id, String expectedStatus, String targetStatus) {
+        if (!DEVICE_STATUSES.contains(targetStatus)) {
+            throw new IllegalArgumentException("不支持的设备状态: " + targetStatus);
+        }
+        if (!DEVICE_STATUSES.contains(expectedStatus)
+                || !DeviceStatus.fromCode(expectedStatus).canTransitionTo(DeviceStatus.fromCode(targetStatus))) {
+            return TransitionResult.INVALID;
+        }
+
+        // 条件更新：当前状态已被其他操作修改时不更新，并发派工时只有一个操作成功
+        if (deviceRepository.compareAndSetStatus(id, expectedStatus, targetStatus) == 0) {
+            // 注册表可能已过期（例如绕过服务修改了数据库），按数据库中的设备纠正并判断是否存在
+            String actualStatus = deviceRegistry.refresh(id).map(Device::getStatus).orElse(null);
+            log.debug("设备状态转换冲突 - 设备ID: {}，预期: {}，当前: {}，目标: {}",
+                    id, expectedStatus, actualStatus, targetStatus);
+            return actualStatus != null ? TransitionResult.CONFLICT : TransitionResult.NOT_FOUND;
+        }
+        deviceRegistry.updateStatus(Collections.singletonList(id), targetStatus);
+        return TransitionResult.APPLIED;
     }
 
     @Override
@@ -269,77 +323,80 @@ public class DeviceServiceImpl implements DeviceService {
         if (!DEVICE_STATUSES.contains(status)) {
             throw new IllegalArgumentException("不支持的设备状态: " + status);
         }
-        return deviceRepository.batchUpdateDeviceStatus(deviceIds, status);
+        int updated = deviceRepository.batchUpdateDeviceStatus(deviceIds, status);
+        deviceRegistry.updateStatus(deviceIds, status);
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public Set<Long> transitionDeviceStatuses(Collection<Long> ids, String expectedStatus, String targetStatus) {
+        if (!DEVICE_STATUSES.contains(targetStatus)) {
+            throw new IllegalArgumentException("不支持的设备状态: " + targetStatus);
+        }
+        if (!DEVICE_STATUSES.contains(expectedStatus)
+                || !DeviceStatus.fromCode(expectedStatus).canTransitionTo(DeviceStatus.fromCode(targetStatus))) {
+            throw new IllegalStateException("设备状态不能从 " + expectedStatus + " 转换为 " + targetStatus);
+        }
+        if (ids.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        // 先锁定仍处于预期状态的设备，再整体更新，一次查询和一次更新即可确定每台设备的结果
+        List<Long> matchedIds = deviceRepository.findAllForUpdateByStatus(ids, expectedStatus).stream()
+                .map(Device::getId)
+                .collect(Collectors.toList());
+        if (!matchedIds.isEmpty()) {
+            deviceRepository.updateDeviceStatusBatch(matchedIds, targetStatus);
+            deviceRegistry.updateStatus(matchedIds, targetStatus);
+        }
+        return new HashSet<>(matchedIds);
     }
 
     @Override
     public Map<String, Long> getDeviceStatistics() {
+        DeviceStatusCounters counters = deviceRegistry.getStatusCounters();
         Map<String, Long> stats = new HashMap<>();
-        stats.put("total", deviceRepository.countAllDevices());
-        stats.put("idle", deviceRepository.countByStatus("idle"));
-        stats.put("working", deviceRepository.countByStatus("working"));
-        stats.put("maintenance", deviceRepository.countByStatus("maintenance"));
+        stats.put("total", counters.getTotal());
+        stats.put("idle", counters.getCountByStatus("idle"));
+        stats.put("working", counters.getCountByStatus("working"));
+        stats.put("maintenance", counters.getCountByStatus("maintenance"));
         return stats;
     }
 
     @Override
     public Map<String, Long> getDeviceTypeDistribution() {
-        List<Object[]> results = deviceRepository.getDeviceTypeDistribution();
-        return results.stream()
-                .collect(Collectors.toMap(
-                        result -> (String) result[0],
-                        result -> (Long) result[1]
-                ));
+        return deviceRegistry.getStatusCounters().getTypeDistribution();
     }
 
     @Override
     public Map<String, Long> getDeviceStatusDistribution() {
-        List<Object[]> results = deviceRepository.getDeviceStatusDistribution();
-        return results.stream()
-                .collect(Collectors.toMap(
-                        result -> (String) result[0],
-                        result -> (Long) result[1]
-                ));
+        return deviceRegistry.getStatusCounters().getStatusDistribution();
     }
 
     @Override
     public Map<String, Map<String, Long>> getDeviceTypeStatusStatistics() {
-        List<Object[]> results = deviceRepository.getDeviceTypeStatusStatistics();
-        Map<String, Map<String, Long>> stats = new HashMap<>();
-        
-        for (Object[] result : results) {
-            String deviceType = (String) result[0];
-            String status = (String) result[1];
-            Long count = (Long) result[2];
-            
-            stats.computeIfAbsent(deviceType, k -> new HashMap<>()).put(status, count);
-        }
-        
-        return stats;
+        return deviceRegistry.getStatusCounters().getTypeStatusStatistics();
     }
 
     @Override
     public boolean isDeviceAvailableForProduction(Long deviceId) {
-        Device device = deviceRepository.findById(deviceId).orElse(null);
-        return device != null && "idle".equals(device.getStatus());
+        return "idle".equals(deviceRegistry.getStatus(deviceId).orElse(null));
     }
 
     @Override
     public boolean isDeviceAvailableForProduction(String deviceCode) {
-        Device device = deviceRepository.findByDeviceCode(deviceCode).orElse(null);
-        return device != null && "idle".equals(device.getStatus());
+        return "idle".equals(deviceRegistry.getStatus(deviceCode).orElse(null));
     }
 
     @Override
     public boolean isDeviceWorking(Long deviceId) {
-        Device device = deviceRepository.findById(deviceId).orElse(null);
-        return device != null && "working".equals(device.getStatus());
+        return "working".equals(deviceRegistry.getStatus(deviceId).orElse(null));
     }
 
     @Override
     public boolean isDeviceInMaintenance(Long deviceId) {
-        Device device = deviceRepository.findById(deviceId).orElse(null);
-        return device != null && "maintenance".equals(device.getStatus());
+        return "maintenance".equals(deviceRegistry.getStatus(deviceId).orElse(null));
     }
 
     @Override
@@ -401,48 +458,66 @@ public class DeviceServiceImpl implements DeviceService {
             throw new IllegalArgumentException("不支持的设备类型: " + deviceType);
         }
         
-        // 查找该类型设备的最大编号
-        List<String> existingCodes = getDeviceCodesByType(deviceType);
-        int maxNumber = 0;
-        
-        for (String code : existingCodes) {
-            String numberPart = code.substring(deviceType.length());
-            try {
-                int number = Integer.parseInt(numberPart);
-                maxNumber = Math.max(maxNumber, number);
-            } catch (NumberFormatException e) {
-                // 忽略格式错误的编号
-            }
-        }
+        // 设备编号只有两位数字，逐个领取序号避免号段浪费；跳过手工创建时已占用的编号
+        String deviceCode;
+        do {
+            long number = codeSequenceService.next("DEVICE-" + deviceType, "", 1, () ->
+                    CodeSequenceService.maxSequence(getDeviceCodesByType(deviceType), deviceType));
+            deviceCode = String.format("%s%02d", deviceType, number);
+        } while (deviceRegistry.containsDeviceCode(deviceCode));
         
-        return String.format("%s%02d", deviceType, maxNumber + 1);
+        return deviceCode;
     }
 
     @Override
-    @PostConstruct
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
     @Transactional
     public void initializeDefaultDevices() {
         log.info("初始化默认设备...");
+        long startTime = System.currentTimeMillis();
+        
+        // 一次查询已有设备编号，只插入缺少的默认设备
+        Set<String> existingCodes = new HashSet<>(deviceRepository.getAllDeviceCodes());
+        List<Device> missingDevices = new ArrayList<>();
         
         // 初始化AOI设备
-        initializeDevicesByType("AOI", 8, "D", 802);
+        collectMissingDevices("AOI", 8, "D", 802, existingCodes, missingDevices);
         
         // 初始化CNC设备
-        initializeDevicesByType("CNC", 16, "D", 866);
+        collectMissingDevices("CNC", 16, "D", 866, existingCodes, missingDevices);
         
         // 初始化CCM08设备
-        initializeDevicesByType("CCM08", 24, "D", 806);
+        collectMissingDevices("CCM08", 24, "D", 806, existingCodes, missingDevices);
         
         // 初始化CCM23设备（实际为CCM32）
-        initializeDevicesByType("CCM23", 8, "D", 854);
+        collectMissingDevices("CCM23", 8, "D", 854, existingCodes, missingDevices);
+        
+        if (!missingDevices.isEmpty()) {
+            // 主键为自增列，Hibernate无法批量插入，直接使用JDBC批量插入
+            jdbcTemplate.batchUpdate(INSERT_DEVICE_SQL, missingDevices, missingDevices.size(), (ps, device) -> {
+                ps.setString(1, device.getDeviceCode());
+                ps.setString(2, device.getDeviceName());
+                ps.setString(3, device.getDeviceType());
+                ps.setString(4, device.getPlcAddress());
+                ps.setString(5, device.getStatus());
+                ps.setTimestamp(6, Timestamp.valueOf(device.getCreatedTime()));
+                ps.setTimestamp(7, Timestamp.valueOf(device.getUpdatedTime()));
+            });
+            deviceRegistry.putAll(deviceRepository.findByDeviceCodeIn(
+                    missingDevices.stream().map(Device::getDeviceCode).collect(Collectors.toList())));
+        }
         
-        log.info("默认设备初始化完成");
+        log.info("默认设备初始化完成，新增设备: {}，耗时: {}ms", missingDevices.size(),
+                System.currentTimeMillis() - startTime);
     }
-    
-    private void initializeDevicesByType(String deviceType, int count, String plcPrefix, int startAddress) {
+
+    private void collectMissingDevices(String deviceType, int count, String plcPrefix, int startAddress,
+                                       Set<String> existingCodes, List<Device> missingDevices) {
+        LocalDateTime now = LocalDateTime.now();
         for (int i = 1; i <= count; i++) {
             String deviceCode = String.format("%s%02d", deviceType, i);
-            if (!existsByDeviceCode(deviceCode)) {
+            if (!existingCodes.contains(deviceCode)) {
                 String plcAddress = String.format("%s%d", plcPrefix, startAddress + (i - 1) * 2);
                 
                 Device device = new Device();
@@ -451,17 +526,17 @@ public class DeviceServiceImpl implements DeviceService {
                 device.setDeviceType(deviceType);
                 device.setPlcAddress(plcAddress);
                 device.setStatus("idle");
-                device.setCreatedTime(LocalDateTime.now());
-                device.setUpdatedTime(LocalDateTime.now());
+                device.setCreatedTime(now);
+                device.setUpdatedTime(now);
                 
-                deviceRepository.save(device);
+                missingDevices.add(device);
             }
         }
     }
 
     @Override
     public Map<String, Object> getDeviceDetailInfo(Long deviceId) {
-        Device device = deviceRepository.findById(deviceId).orElse(null);
+        Device device = deviceRegistry.findById(deviceId).orElse(null);
         if (device == null) {
             return null;
         }
@@ -476,50 +551,23 @@ public class DeviceServiceImpl implements DeviceService {
 
     @Override
     public List<Map<String, Object>> getAllDevicesStatusOverview() {
-        List<Device> devices = deviceRepository.findAll();
-        return devices.stream()
-                .map(this::buildDeviceStatusOverview)
-                .collect(Collectors.toList());
+        return buildDeviceStatusOverview(null);
     }
 
     @Override
     public List<Map<String, Object>> getDevicesStatusOverviewByType(String deviceType) {
-        List<Device> devices = deviceRepository.findByDeviceType(deviceType);
-        return devices.stream()
-                .map(this::buildDeviceStatusOverview)
-                .collect(Collectors.toList());
+        return buildDeviceStatusOverview(deviceType);
     }
     
-    private Map<String, Object> buildDeviceStatusOverview(Device device) {
-        Map<String, Object> overview = new HashMap<>();
-        overview.put("id", device.getId());
-        overview.put("deviceCode", device.getDeviceCode());
-        overview.put("deviceName", device.getDeviceName());
-        overview.put("deviceType", device.getDeviceType());
-        overview.put("status", device.getStatus());
-        overview.put("plcAddress", device.getPlcAddress());
-        
-        // 添加业务状态信息
-        if ("working".equals(device.getStatus())) {
-            // 查找当前派工单信息
-            workOrderRepository.findActiveWorkOrderByDeviceId(device.getId())
-                    .ifPresent(workOrder -> {
-                        overview.put("workOrderCode", workOrder.getWorkOrderCode());
-                        overview.put("plannedQuantity", workOrder.getPlannedQuantity());
-                        overview.put("actualQuantity", workOrder.getActualQuantity());
-                        overview.put("startTime", workOrder.getStartTime());
-                    });
-        } else if ("maintenance".equals(device.getStatus())) {
-            // 查找当前维修记录信息
-            maintenanceRecordRepository.findActiveMaintenanceByDeviceId(device.getId())
-                    .ifPresent(maintenance -> {
-                        overview.put("maintenanceDescription", maintenance.getDescription());
-                        overview.put("reportTime", maintenance.getReportTime());
-                        overview.put("maintainer", maintenance.getMaintainer());
-                    });
+    /**
+     * 一次关联查询构建设备状态总览（设备有多条进行中的记录时取最新一条）
+     */
+    private List<Map<String, Object>> buildDeviceStatusOverview(String deviceType) {
+        Map<Long, Map<String, Object>> overviews = new LinkedHashMap<>();
+        for (DeviceStatusOverview row : deviceRepository.findStatusOverview(deviceType)) {
+            overviews.putIfAbsent(row.getId(), row.toMap());
         }
-        
-        return overview;
+        return new ArrayList<>(overviews.values());
     }
 
     @Override
@@ -545,7 +593,9 @@ public class DeviceServiceImpl implements DeviceService {
     @Override
     @Transactional
     public int resetAllDevicesToIdle() {
-        return deviceRepository.batchSetDeviceStatus("idle");
+        int updated = deviceRepository.batchSetDeviceStatus("idle");
+        deviceRegistry.updateAllStatuses("idle");
+        return updated;
     }
 
     @Override
@@ -1,13 +1,18 @@
 package com.pda.service.impl;
 
+import com.pda.dto.KeysetPage;
 import com.pda.entity.Device;
 import com.pda.entity.MaintenanceRecord;
 import com.pda.repository.DeviceRepository;
 import com.pda.repository.MaintenanceRecordRepository;
+import com.pda.service.CodeSequenceService;
 import com.pda.service.DeviceService;
 import com.pda.service.MaintenanceRecordService;
+import com.pda.stream.StateChangeEvent;
+import com.pda.stream.StateChangeEvent.Kind;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -38,6 +43,8 @@ public class MaintenanceRecordServiceImpl implements MaintenanceRecordService {
     private final MaintenanceRecordRepository maintenanceRecordRepository;
     private final DeviceRepository deviceRepository;
     private final DeviceService deviceService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CodeSequenceService codeSequenceService;
     
     // 维修单号格式验证正则表达式
     private static final Pattern MAINTENANCE_CODE_PATTERN = Pattern.compile("^MR\\d{8}-\\d{3}$");
@@ -52,7 +59,9 @@ public class MaintenanceRecordServiceImpl implements MaintenanceRecordService {
             maintenanceRecord.setCreatedTime(LocalDateTime.now());
         }
         maintenanceRecord.setUpdatedTime(LocalDateTime.now());
-        return maintenanceRecordRepository.save(maintenanceRecord);
+        MaintenanceRecord savedRecord = maintenanceRecordRepository.save(maintenanceRecord);
+        publishChange(savedRecord.getId());
+        return savedRecord;
     }
 
     @Override
@@ -85,7 +94,7 @@ public class MaintenanceRecordServiceImpl implements MaintenanceRecordService {
             throw new IllegalArgumentException("设备不可报修");
         }
         
-        Device device = deviceRepository.findById(deviceId)
+        Device device = deviceService.findById(deviceId)
                 .orElseThrow(() -> new IllegalArgumentException("设备不存在: " + deviceId));
         
         MaintenanceRecord maintenanceRecord = new MaintenanceRecord();
@@ -123,7 +132,9 @@ public class MaintenanceRecordServiceImpl implements MaintenanceRecordService {
         }
         
         maintenanceRecord.setUpdatedTime(LocalDateTime.now());
-        return maintenanceRecordRepository.save(maintenanceRecord);
+        MaintenanceRecord savedRecord = maintenanceRecordRepository.save(maintenanceRecord);
+        publishChange(savedRecord.getId());
+        return savedRecord;
     }
 
     @Override
@@ -140,6 +151,7 @@ public class MaintenanceRecordServiceImpl implements MaintenanceRecordService {
         }
         
         maintenanceRecordRepository.deleteById(id);
+        publishChange(id);
         return true;
     }
 
@@ -181,6 +193,7 @@ public class MaintenanceRecordServiceImpl implements MaintenanceRecordService {
         maintenanceRecord.setStartTime(LocalDateTime.now());
         maintenanceRecord.setUpdatedTime(LocalDateTime.now());
         maintenanceRecordRepository.save(maintenanceRecord);
+        publishChange(maintenanceRecord.getId());
         
         return true;
     }
@@ -222,6 +235,7 @@ public class MaintenanceRecordServiceImpl implements MaintenanceRecordService {
         maintenanceRecord.setEndTime(LocalDateTime.now());
         maintenanceRecord.setUpdatedTime(LocalDateTime.now());
         maintenanceRecordRepository.save(maintenanceRecord);
+        publishChange(maintenanceRecord.getId());
         
         // 设置设备为空闲状态
         deviceService.setDeviceIdle(maintenanceRecord.getDeviceId());
@@ -248,6 +262,7 @@ public class MaintenanceRecordServiceImpl implements MaintenanceRecordService {
         maintenanceRecord.setEndTime(LocalDateTime.now());
         maintenanceRecord.setUpdatedTime(LocalDateTime.now());
         maintenanceRecordRepository.save(maintenanceRecord);
+        publishChange(maintenanceRecord.getId());
         
         // 设置设备为空闲状态
         deviceService.setDeviceIdle(maintenanceRecord.getDeviceId());
@@ -337,6 +352,17 @@ public class MaintenanceRecordServiceImpl implements MaintenanceRecordService {
         return maintenanceRecordRepository.searchMaintenanceRecordsByKeyword(keyword, pageable);
     }
 
+    @Override
+    public KeysetPage<MaintenanceRecord> searchMaintenanceRecords(String keyword, String pageToken, int size, boolean withTotal) {
+        KeysetPage.Cursor cursor = KeysetPage.Cursor.decode(pageToken);
+        List<MaintenanceRecord> rows = maintenanceRecordRepository.seekMaintenanceRecordsByKeyword(keyword,
+                cursor != null ? cursor.getDateTime() : null, cursor != null ? cursor.getId() : null,
+                KeysetPage.probe(size));
+        Long total = withTotal ? maintenanceRecordRepository.countMaintenanceRecordsByKeyword(keyword) : null;
+        return KeysetPage.of(rows, size,
+                record -> KeysetPage.Cursor.of(record.getCreatedTime(), record.getId()), total);
+    }
+
     @Override
     public boolean hasActiveMaintenanceForDevice(Long deviceId) {
         return maintenanceRecordRepository.hasActiveMaintenanceForDevice(deviceId);
@@ -516,22 +542,12 @@ public class MaintenanceRecordServiceImpl implements MaintenanceRecordService {
     public String generateMaintenanceCode() {
         String dateStr = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
         
-        // 查找当天的最大序号
+        // 按天的号段序列分配序号，只在当天首次分配时读取已有编号接续序号
         String prefix = "MR" + dateStr + "-";
-        List<String> todayCodes = maintenanceRecordRepository.findMaintenanceCodesByPrefix(prefix);
-        
-        int maxSequence = 0;
-        for (String code : todayCodes) {
-            String sequencePart = code.substring(prefix.length());
-            try {
-                int sequence = Integer.parseInt(sequencePart);
-                maxSequence = Math.max(maxSequence, sequence);
-            } catch (NumberFormatException e) {
-                // 忽略格式错误的编号
-            }
-        }
+        long sequence = codeSequenceService.next("MR", dateStr, () ->
+                CodeSequenceService.maxSequence(maintenanceRecordRepository.findMaintenanceCodesByPrefix(prefix), prefix));
         
-        return String.format("%s%03d", prefix, maxSequence + 1);
+        return String.format("%s%03d", prefix, sequence);
     }
 
     @Override
@@ -572,7 +588,7 @@ public class MaintenanceRecordServiceImpl implements MaintenanceRecordService {
         info.put("maintenanceRecord", maintenanceRecord);
         
         // 添加设备信息
-        deviceRepository.findById(maintenanceRecord.getDeviceId())
+        deviceService.findById(maintenanceRecord.getDeviceId())
                 .ifPresent(device -> info.put("device", device));
         
         // 添加进度信息
@@ -744,4 +760,11 @@ public class MaintenanceRecordServiceImpl implements MaintenanceRecordService {
         Pageable pageable = PageRequest.of(0, limit);
         return maintenanceRecordRepository.findByDeviceIdOrderByCreatedTimeDesc(deviceId, pageable);
     }
-}
\ No newline at end of file
+
+    /**
+     * 发布维修记录变化事件（事务提交后推送给订阅的客户端）
+     */
+    private void publishChange(Long maintenanceId) {
+        eventPublisher.publishEvent(StateChangeEvent.of(Kind.MAINTENANCE, maintenanceId));
+    }
+}
@@ -0,0 +1,59 @@
+package com.pda.service.impl;
+
+import com.pda.entity.WorkOrder;
+import com.pda.repository.WorkOrderRepository;
+import com.pda.stream.StateChangeEvent;
+import com.pda.stream.StateChangeEvent.Kind;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 派工单批量写入器
+ * 每批在独立事务中用JDBC批量插入，一批失败不影响已提交的批次
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Component
+@RequiredArgsConstructor
+public class WorkOrderBatchWriter {
+
+    private static final String INSERT_WORK_ORDER_SQL = "INSERT INTO work_orders "
+            + "(order_no, device_id, device_code, planned_quantity, actual_quantity, status, created_by, created_time, updated_time) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final WorkOrderRepository workOrderRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 批量插入派工单
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void insert(List<WorkOrder> workOrders) {
+        jdbcTemplate.batchUpdate(INSERT_WORK_ORDER_SQL, workOrders, workOrders.size(), (ps, workOrder) -> {
+            ps.setString(1, workOrder.getOrderNo());
+            ps.setLong(2, workOrder.getDeviceId());
+            ps.setString(3, workOrder.getDeviceCode());
+            ps.setInt(4, workOrder.getPlannedQuantity());
+            ps.setInt(5, workOrder.getActualQuantity());
+            ps.setString(6, workOrder.getStatus());
+            ps.setString(7, workOrder.getCreatedBy());
+            ps.setTimestamp(8, Timestamp.valueOf(workOrder.getCreatedTime()));
+            ps.setTimestamp(9, Timestamp.valueOf(workOrder.getUpdatedTime()));
+        });
+
+        // 批量插入不返回自增ID，按派工单号查询一次用于发布变化事件
+        List<String> orderNos = workOrders.stream().map(WorkOrder::getOrderNo).collect(Collectors.toList());
+        eventPublisher.publishEvent(StateChangeEvent.of(Kind.WORK_ORDER, workOrderRepository.findIdsByOrderNoIn(orderNos)));
+    }
+}
@@ -0,0 +1,309 @@
+package com.pda.service.impl;
+
+import com.pda.dto.WorkOrderImportResult;
+import com.pda.entity.Device;
+import com.pda.entity.WorkOrder;
+import com.pda.enums.DeviceStatus;
+import com.pda.repository.WorkOrderRepository;
+import com.pda.service.DeviceService;
+import com.pda.service.WorkOrderImportService;
+import com.pda.service.WorkOrderService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * 派工单导入服务实现类
+ * 逐行读取上传文件，按内存中的设备注册表校验，每批一次校验派工单号、一次领取编号号段、一次JDBC批量插入
+ * <p>
+ * 设备校验比单条创建宽松：单条创建要求设备闲置，导入的派工单只是排队待生产，
+ * 因此闲置和生产中的设备都可以导入；维修、故障、离线、停用或状态未知的设备按行报错
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WorkOrderImportServiceImpl implements WorkOrderImportService {
+
+    static final int ORDER_NO = 0;
+    static final int DEVICE_CODE = 1;
+    static final int PLANNED_QUANTITY = 2;
+    static final int CREATED_BY = 3;
+
+    /**
+     * 表头名称（中文或英文）对应的列
+     */
+    private static final Map<String, Integer> HEADER_COLUMNS = new HashMap<>();
+
+    static {
+        HEADER_COLUMNS.put("派工单号", ORDER_NO);
+        HEADER_COLUMNS.put("orderno", ORDER_NO);
+        HEADER_COLUMNS.put("设备编号", DEVICE_CODE);
+        HEADER_COLUMNS.put("devicecode", DEVICE_CODE);
+        HEADER_COLUMNS.put("计划产量", PLANNED_QUANTITY);
+        HEADER_COLUMNS.put("plannedquantity", PLANNED_QUANTITY);
+        HEADER_COLUMNS.put("创建人", CREATED_BY);
+        HEADER_COLUMNS.put("createdby", CREATED_BY);
+    }
+
+    /**
+     * 可以导入派工单的设备状态
+     */
+    private static final Set<String> IMPORTABLE_DEVICE_STATUSES = new HashSet<>(Arrays.asList(
+            DeviceStatus.IDLE.getCode(), DeviceStatus.WORKING.getCode()));
+
+    private final WorkOrderService workOrderService;
+    private final DeviceService deviceService;
+    private final WorkOrderRepository workOrderRepository;
+    private final WorkOrderBatchWriter workOrderBatchWriter;
+
+    @Value("${app.work-order.import.batch-size:500}")
+    private int batchSize;
+
+    @Override
+    public WorkOrderImportResult importCsv(InputStream input, String createdBy) throws IOException {
+        WorkOrderImportResult result = new WorkOrderImportResult();
+        int limit = Math.max(1, batchSize);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String header = reader.readLine();
+            if (header == null) {
+                throw new IllegalArgumentException("导入文件为空");
+            }
+            int[] columns = parseHeader(header);
+
+            List<ImportRow> batch = new ArrayList<>(limit);
+            Set<String> fileOrderNos = new HashSet<>();
+            int line = 1;
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (!StringUtils.hasText(text)) {
+                    continue;
+                }
+                result.setTotalRows(result.getTotalRows() + 1);
+                try {
+                    batch.add(parseRow(line, splitLine(text), columns, createdBy, fileOrderNos));
+                } catch (IllegalArgumentException e) {
+                    result.addError(line, e.getMessage());
+                }
+                if (batch.size() >= limit) {
+                    writeBatch(batch, result);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                writeBatch(batch, result);
+            }
+        }
+        log.info("派工单导入完成 - 数据行: {}，导入: {}，失败: {}",
+                result.getTotalRows(), result.getImportedRows(), result.getFailedRows());
+        return result;
+    }
+
+    /**
+     * 解析表头，返回各列在行中的位置（不存在时为-1）
+     */
+    static int[] parseHeader(String header) {
+        int[] columns = {-1, -1, -1, -1};
+        List<String> names = splitLine(header.startsWith("\uFEFF") ? header.substring(1) : header);
+        for (int i = 0; i < names.size(); i++) {
+            Integer column = HEADER_COLUMNS.get(names.get(i).trim().toLowerCase(Locale.ROOT));
+            if (column != null) {
+                columns[column] = i;
+            }
+        }
+        if (columns[DEVICE_CODE] < 0 || columns[PLANNED_QUANTITY] < 0) {
+            throw new IllegalArgumentException("导入文件缺少表头列: 设备编号、计划产量");
+        }
+        return columns;
+    }
+
+    /**
+     * 校验一行数据：设备从内存注册表查找并检查状态，指定的派工单号检查格式和文件内重复
+     */
+    private ImportRow parseRow(int line, List<String> fields, int[] columns, String uploader,
+                               Set<String> fileOrderNos) {
+        String orderNo = field(fields, columns[ORDER_NO]);
+        String deviceCode = field(fields, columns[DEVICE_CODE]);
+        String quantity = field(fields, columns[PLANNED_QUANTITY]);
+        String createdBy = field(fields, columns[CREATED_BY]);
+
+        if (deviceCode == null) {
+            throw new IllegalArgumentException("设备编号不能为空");
+        }
+        Device device = deviceService.findByDeviceCode(deviceCode)
+                .orElseThrow(() -> new IllegalArgumentException("设备不存在: " + deviceCode));
+        if (!IMPORTABLE_DEVICE_STATUSES.contains(device.getStatus())) {
+            throw new IllegalArgumentException("设备当前状态不可安排生产: " + deviceCode + "（" + device.getStatus() + "）");
+        }
+
+        int plannedQuantity;
+        try {
+            plannedQuantity = Integer.parseInt(quantity != null ? quantity : "");
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("计划产量不是有效的整数: " + quantity);
+        }
+        if (plannedQuantity <= 0) {
+            throw new IllegalArgumentException("计划产量必须大于0");
+        }
+
+        if (createdBy != null && createdBy.length() > 50) {
+            throw new IllegalArgumentException("创建人长度不能超过50个字符");
+        }
+
+        if (orderNo != null) {
+            if (!workOrderService.validateWorkOrderCodeFormat(orderNo)) {
+                throw new IllegalArgumentException("派工单号格式不正确: " + orderNo);
+            }
+            if (!fileOrderNos.add(orderNo)) {
+                throw new IllegalArgumentException("派工单号在文件中重复: " + orderNo);
+            }
+        }
+        return new ImportRow(line, orderNo, device, plannedQuantity, createdBy != null ? createdBy : uploader);
+    }
+
+    /**
+     * 写入一批：一次查询已存在的派工单号，为未指定编号的行一次领取号段，然后批量插入
+     */
+    private void writeBatch(List<ImportRow> batch, WorkOrderImportResult result) {
+        List<String> orderNos = new ArrayList<>();
+        for (ImportRow row : batch) {
+            if (row.orderNo != null) {
+                orderNos.add(row.orderNo);
+            }
+        }
+        Set<String> existing = orderNos.isEmpty()
+                ? Collections.emptySet()
+                : new HashSet<>(workOrderRepository.findOrderNosIn(orderNos));
+
+        List<ImportRow> accepted = new ArrayList<>(batch.size());
+        int generatedCount = 0;
+        for (ImportRow row : batch) {
+            if (row.orderNo != null && existing.contains(row.orderNo)) {
+                result.addError(row.line, "派工单号已存在: " + row.orderNo);
+            } else {
+                accepted.add(row);
+                if (row.orderNo == null) {
+                    generatedCount++;
+                }
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        Iterator<String> generatedCodes;
+        try {
+            generatedCodes = generatedCount > 0
+                    ? workOrderService.generateWorkOrderCodes(generatedCount).iterator()
+                    : Collections.emptyIterator();
+        } catch (IllegalStateException e) {
+            // 当天派工单号序号用完，整批不写入
+            for (ImportRow row : accepted) {
+                result.addError(row.line, e.getMessage());
+            }
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<WorkOrder> workOrders = new ArrayList<>(accepted.size());
+        for (ImportRow row : accepted) {
+            WorkOrder workOrder = new WorkOrder();
+            workOrder.setOrderNo(row.orderNo != null ? row.orderNo : generatedCodes.next());
+            workOrder.setDeviceId(row.device.getId());
+            workOrder.setDeviceCode(row.device.getDeviceCode());
+            workOrder.setPlannedQuantity(row.plannedQuantity);
+            workOrder.setActualQuantity(0);
+            workOrder.setStatus("pending");
+            workOrder.setCreatedBy(row.createdBy);
+            workOrder.setCreatedTime(now);
+            workOrder.setUpdatedTime(now);
+            workOrders.add(workOrder);
+        }
+
+        try {
+            workOrderBatchWriter.insert(workOrders);
+            result.setImportedRows(result.getImportedRows() + workOrders.size());
+        } catch (DataAccessException e) {
+            // 例如并发导入了相同的派工单号，整批回滚
+            String message = "写入失败: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            log.warn("派工单批量写入失败，行 {} - {}: {}", accepted.get(0).line,
+                    accepted.get(accepted.size() - 1).line, message);
+            for (ImportRow row : accepted) {
+                result.addError(row.line, message);
+            }
+        }
+    }
+
+    private static String field(List<String> fields, int column) {
+        if (column < 0 || column >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(column).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * 拆分一行CSV：支持双引号包围的字段和字段内的双引号转义（""），不支持字段内换行
+     */
+    static List<String> splitLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * 校验通过的导入行
+     */
+    private static final class ImportRow {
+        private final int line;
+        private final String orderNo;
+        private final Device device;
+        private final int plannedQuantity;
+        private final String createdBy;
+
+        private ImportRow(int line, String orderNo, Device device, int plannedQuantity, String createdBy) {
+            this.line = line;
+            this.orderNo = orderNo;
+            this.device = device;
+            this.plannedQuantity = plannedQuantity;
+            this.createdBy = createdBy;
+        }
+    }
+}
@@ -1,20 +1,35 @@
 package com.pda.service.impl;
 
+import com.pda.deadline.WorkOrderDeadlineEvent;
+import com.pda.deadline.WorkOrderDeadlineMonitor;
+import com.pda.dto.KeysetPage;
 import com.pda.entity.Device;
 import com.pda.entity.WorkOrder;
-import com.pda.repository.DeviceRepository;
+import com.pda.enums.TransitionResult;
+import com.pda.enums.WorkOrderStatus;
+import com.pda.plc.PlcAcquisitionEngine;
+import com.pda.plc.ProductionCounterAccumulator;
 import com.pda.repository.WorkOrderRepository;
+import com.pda.service.CodeSequenceService;
 import com.pda.service.DeviceService;
 import com.pda.service.WorkOrderService;
+import com.pda.stream.StateChangeEvent;
+import com.pda.stream.StateChangeEvent.Kind;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 import org.springframework.util.StringUtils;
 
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
@@ -36,14 +51,31 @@ import java.util.stream.Collectors;
 public class WorkOrderServiceImpl implements WorkOrderService {
 
     private final WorkOrderRepository workOrderRepository;
-    private final DeviceRepository deviceRepository;
     private final DeviceService deviceService;
+    private final PlcAcquisitionEngine plcAcquisitionEngine;
+    private final ProductionCounterAccumulator productionCounterAccumulator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CodeSequenceService codeSequenceService;
+    private final JdbcTemplate jdbcTemplate;
+    private final WorkOrderDeadlineMonitor workOrderDeadlineMonitor;
     
-    // 派工单号格式验证正则表达式
-    private static final Pattern WORK_ORDER_CODE_PATTERN = Pattern.compile("^WO\\d{8}-\\d{3}$");
+    // 派工单号格式验证正则表达式：日期后的序号至少3位，当天超过999个时按实际位数增长，最多6位
+    private static final Pattern WORK_ORDER_CODE_PATTERN = Pattern.compile("^WO\\d{8}-\\d{3,6}$");
+    
+    // 派工单号当天的最大序号
+    private static final long MAX_WORK_ORDER_SEQUENCE = 999_999L;
     
     // 派工单状态列表
     private static final List<String> WORK_ORDER_STATUSES = Arrays.asList("pending", "in_progress", "completed", "cancelled");
+    
+    // 开始生产只针对待开始的派工单（已暂停的派工单通过恢复生产继续），结束生产的来源状态按状态转换表，用于条件更新
+    private static final List<String> START_SOURCE_STATUSES = Collections.singletonList(WorkOrderStatus.CREATED.getCode());
+    private static final List<String> FINISH_SOURCE_STATUSES = WorkOrderStatus.COMPLETED.getSourceCodes();
+    
+    // 批量结束生产：每个派工单的产量不同，按JDBC批量执行（派工单已锁定并校验状态）
+    private static final String FINISH_WORK_ORDER_SQL = "UPDATE work_orders "
+            + "SET status = ?, end_time = ?, actual_quantity = COALESCE(?, actual_quantity), updated_time = ? "
+            + "WHERE id = ?";
 
     @Override
     @Transactional
@@ -52,7 +84,9 @@ public class WorkOrderServiceImpl implements WorkOrderService {
             workOrder.setCreatedTime(LocalDateTime.now());
         }
         workOrder.setUpdatedTime(LocalDateTime.now());
-        return workOrderRepository.save(workOrder);
+        WorkOrder savedWorkOrder = workOrderRepository.save(workOrder);
+        publishChange(savedWorkOrder.getId());
+        return savedWorkOrder;
     }
 
     @Override
@@ -89,7 +123,7 @@ public class WorkOrderServiceImpl implements WorkOrderService {
             throw new IllegalArgumentException("计划产量必须大于0");
         }
         
-        Device device = deviceRepository.findById(deviceId)
+        Device device = deviceService.findById(deviceId)
                 .orElseThrow(() -> new IllegalArgumentException("设备不存在: " + deviceId));
         
         WorkOrder workOrder = new WorkOrder();
@@ -118,7 +152,9 @@ public class WorkOrderServiceImpl implements WorkOrderService {
         }
         
         workOrder.setUpdatedTime(LocalDateTime.now());
-        return workOrderRepository.save(workOrder);
+        WorkOrder savedWorkOrder = workOrderRepository.save(workOrder);
+        publishChange(savedWorkOrder.getId());
+        return savedWorkOrder;
     }
 
     @Override
@@ -135,18 +171,14 @@ public class WorkOrderServiceImpl implements WorkOrderService {
         }
         
         workOrderRepository.deleteById(id);
+        publishChange(id);
         return true;
     }
 
     @Override
     @Transactional
     public boolean startProduction(Long workOrderId) {
-        WorkOrder workOrder = workOrderRepository.findById(workOrderId).orElse(null);
-        if (workOrder == null) {
-            return false;
-        }
-        
-        return startProductionInternal(workOrder);
+        return requireTransition(tryStartProduction(workOrderId), "只能开始待开始状态且设备空闲的派工单");
     }
 
     @Override
@@ -157,41 +189,99 @@ public class WorkOrderServiceImpl implements WorkOrderService {
             return false;
         }
         
-        return startProductionInternal(workOrder);
+        return requireTransition(startProductionInternal(workOrder), "只能开始待开始状态且设备空闲的派工单");
+    }
+
+    @Override
+    @Transactional
+    public TransitionResult tryStartProduction(Long workOrderId) {
+        return workOrderRepository.findById(workOrderId)
+                .map(this::startProductionInternal)
+                .orElse(TransitionResult.NOT_FOUND);
     }
     
-    private boolean startProductionInternal(WorkOrder workOrder) {
-        // 检查派工单状态
-        if (!"pending".equals(workOrder.getStatus())) {
-            throw new IllegalStateException("只能开始待开始状态的派工单");
+    private TransitionResult startProductionInternal(WorkOrder workOrder) {
+        // 按状态转换表检查派工单状态
+        if (!START_SOURCE_STATUSES.contains(workOrder.getStatus())) {
+            return TransitionResult.INVALID;
         }
         
-        // 检查设备是否可用
+        // 设备预检查只读注册表，设备不可用时不执行任何更新
         if (!validateDeviceForProduction(workOrder.getDeviceId())) {
-            throw new IllegalStateException("设备不可用于生产");
+            return TransitionResult.CONFLICT;
         }
         
-        // 更新派工单状态
-        workOrder.setStatus("in_progress");
-        workOrder.setStartTime(LocalDateTime.now());
-        workOrder.setUpdatedTime(LocalDateTime.now());
-        workOrderRepository.save(workOrder);
+        // 派工单条件更新，重复提交时只有一个成功
+        if (workOrderRepository.transitionToInProgress(workOrder.getId(), START_SOURCE_STATUSES, LocalDateTime.now()) == 0) {
+            return transitionConflict(workOrder.getId());
+        }
         
-        // 更新设备状态为工作中
-        deviceService.setDeviceWorking(workOrder.getDeviceId());
+        // 占用设备：闲置 -> 工作中的条件更新，同一设备并发派工时只有一个成功，失败时回滚派工单更新
+        if (!deviceService.transitionDeviceStatus(workOrder.getDeviceId(), "idle", "working").isApplied()) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return TransitionResult.CONFLICT;
+        }
+        publishChange(workOrder.getId());
         
-        return true;
+        // 记录PLC计数基准
+        productionCounterAccumulator.begin(workOrder);
+        
+        return TransitionResult.APPLIED;
     }
 
     @Override
     @Transactional
-    public boolean stopProduction(Long workOrderId) {
+    public boolean resumeProduction(Long workOrderId) {
+        return requireTransition(tryResumeProduction(workOrderId), "只能恢复已暂停且设备可用的派工单");
+    }
+
+    @Override
+    @Transactional
+    public TransitionResult tryResumeProduction(Long workOrderId) {
         WorkOrder workOrder = workOrderRepository.findById(workOrderId).orElse(null);
         if (workOrder == null) {
-            return false;
+            return TransitionResult.NOT_FOUND;
+        }
+        if (!WorkOrderStatus.PAUSED.getCode().equals(workOrder.getStatus())) {
+            return TransitionResult.INVALID;
         }
         
-        return stopProductionInternal(workOrder);
+        // 派工单条件更新，不修改开始时间
+        if (workOrderRepository.resumeFromPaused(workOrderId) == 0) {
+            return transitionConflict(workOrderId);
+        }
+        
+        if (!claimDeviceForResume(workOrder)) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return TransitionResult.CONFLICT;
+        }
+        publishChange(workOrderId);
+        
+        // 继续累计：保留设备上该派工单的计数状态，没有时以最近回写的原始计数为基准
+        productionCounterAccumulator.resume(workOrder);
+        
+        return TransitionResult.APPLIED;
+    }
+
+    /**
+     * 恢复生产时占用设备：暂停期间设备可能已释放，闲置时重新占用；
+     * 仍为工作中时，只有设备上没有其他进行中的派工单才视为仍由本派工单占用
+     */
+    private boolean claimDeviceForResume(WorkOrder workOrder) {
+        Long deviceId = workOrder.getDeviceId();
+        if (deviceService.transitionDeviceStatus(deviceId, "idle", "working").isApplied()) {
+            return true;
+        }
+        String deviceStatus = deviceService.findById(deviceId).map(Device::getStatus).orElse(null);
+        return "working".equals(deviceStatus)
+                && workOrderRepository.findByDeviceIdAndStatus(deviceId, "in_progress").stream()
+                        .allMatch(other -> other.getId().equals(workOrder.getId()));
+    }
+
+    @Override
+    @Transactional
+    public boolean stopProduction(Long workOrderId) {
+        return requireTransition(tryStopProduction(workOrderId), "只能停止正在进行的派工单");
     }
 
     @Override
@@ -202,36 +292,19 @@ public class WorkOrderServiceImpl implements WorkOrderService {
             return false;
         }
         
-        return stopProductionInternal(workOrder);
+        return requireTransition(finishProductionInternal(workOrder, null), "只能停止正在进行的派工单");
     }
-    
-    private boolean stopProductionInternal(WorkOrder workOrder) {
-        // 检查派工单状态
-        if (!"in_progress".equals(workOrder.getStatus())) {
-            throw new IllegalStateException("只能停止正在进行的派工单");
-        }
-        
-        // 更新派工单状态
-        workOrder.setStatus("completed");
-        workOrder.setEndTime(LocalDateTime.now());
-        workOrder.setUpdatedTime(LocalDateTime.now());
-        workOrderRepository.save(workOrder);
-        
-        // 更新设备状态为空闲
-        deviceService.setDeviceIdle(workOrder.getDeviceId());
-        
-        return true;
+
+    @Override
+    @Transactional
+    public TransitionResult tryStopProduction(Long workOrderId) {
+        return tryCompleteProduction(workOrderId, null);
     }
 
     @Override
     @Transactional
     public boolean completeProduction(Long workOrderId, Integer actualQuantity) {
-        WorkOrder workOrder = workOrderRepository.findById(workOrderId).orElse(null);
-        if (workOrder == null) {
-            return false;
-        }
-        
-        return completeProductionInternal(workOrder, actualQuantity);
+        return requireTransition(tryCompleteProduction(workOrderId, actualQuantity), "只能完成正在进行的派工单");
     }
 
     @Override
@@ -242,28 +315,64 @@ public class WorkOrderServiceImpl implements WorkOrderService {
             return false;
         }
         
-        return completeProductionInternal(workOrder, actualQuantity);
+        return requireTransition(finishProductionInternal(workOrder, actualQuantity), "只能完成正在进行的派工单");
+    }
+
+    @Override
+    @Transactional
+    public TransitionResult tryCompleteProduction(Long workOrderId, Integer actualQuantity) {
+        return workOrderRepository.findById(workOrderId)
+                .map(workOrder -> finishProductionInternal(workOrder, actualQuantity))
+                .orElse(TransitionResult.NOT_FOUND);
     }
     
-    private boolean completeProductionInternal(WorkOrder workOrder, Integer actualQuantity) {
-        // 检查派工单状态
-        if (!"in_progress".equals(workOrder.getStatus())) {
-            throw new IllegalStateException("只能完成正在进行的派工单");
+    /**
+     * 停止或完成生产，实际产量为空时使用PLC累计的产量
+     */
+    private TransitionResult finishProductionInternal(WorkOrder workOrder, Integer actualQuantity) {
+        // 按状态转换表检查派工单状态
+        if (!FINISH_SOURCE_STATUSES.contains(workOrder.getStatus())) {
+            return TransitionResult.INVALID;
         }
         
-        if (actualQuantity != null && actualQuantity >= 0) {
-            workOrder.setActualQuantity(actualQuantity);
+        // 指定的实际产量优先于PLC累计的产量，两者都没有时保留已回写的产量
+        Integer quantity = actualQuantity != null && actualQuantity >= 0 ? actualQuantity : null;
+        if (quantity == null) {
+            OptionalInt countedQuantity = productionCounterAccumulator.getQuantity(workOrder);
+            quantity = countedQuantity.isPresent() ? countedQuantity.getAsInt() : null;
         }
         
-        // 更新派工单状态
-        workOrder.setStatus("completed");
-        workOrder.setEndTime(LocalDateTime.now());
-        workOrder.setUpdatedTime(LocalDateTime.now());
-        workOrderRepository.save(workOrder);
+        // 派工单条件更新，重复提交时只有一个成功
+        if (workOrderRepository.transitionToFinished(workOrder.getId(), FINISH_SOURCE_STATUSES,
+                WorkOrderStatus.COMPLETED.getCode(), LocalDateTime.now(), quantity) == 0) {
+            return transitionConflict(workOrder.getId());
+        }
+        productionCounterAccumulator.finish(workOrder);
+        publishChange(workOrder.getId());
         
-        // 更新设备状态为空闲
-        deviceService.setDeviceIdle(workOrder.getDeviceId());
+        // 释放设备：工作中 -> 闲置的条件更新，设备已转为维修等其他状态时保持不变
+        deviceService.transitionDeviceStatus(workOrder.getDeviceId(), "working", "idle");
         
+        return TransitionResult.APPLIED;
+    }
+
+    /**
+     * 条件更新没有更新任何行：派工单仍存在时为并发冲突，否则为已删除
+     */
+    private TransitionResult transitionConflict(Long workOrderId) {
+        return workOrderRepository.existsById(workOrderId) ? TransitionResult.CONFLICT : TransitionResult.NOT_FOUND;
+    }
+
+    /**
+     * 将状态转换结果转换为原有的布尔返回值：不存在时返回 false，未转换时抛出异常
+     */
+    private static boolean requireTransition(TransitionResult result, String message) {
+        if (result == TransitionResult.NOT_FOUND) {
+            return false;
+        }
+        if (!result.isApplied()) {
+            throw new IllegalStateException(message + "（" + result.getDescription() + "）");
+        }
         return true;
     }
 
@@ -274,7 +383,11 @@ public class WorkOrderServiceImpl implements WorkOrderService {
             return false;
         }
         
-        return workOrderRepository.updateActualQuantity(workOrderId, actualQuantity) > 0;
+        if (workOrderRepository.updateActualQuantity(workOrderId, actualQuantity) == 0) {
+            return false;
+        }
+        publishChange(workOrderId);
+        return true;
     }
 
     @Override
@@ -359,6 +472,38 @@ public class WorkOrderServiceImpl implements WorkOrderService {
         return workOrderRepository.searchWorkOrdersByKeyword(keyword, pageable);
     }
 
+    @Override
+    public KeysetPage<WorkOrder> findWorkOrdersWithConditions(String workOrderCode, String deviceCode,
+                                                              String status, LocalDateTime startTime,
+                                                              LocalDateTime endTime, String pageToken,
+                                                              int size, boolean withTotal) {
+        KeysetPage.Cursor cursor = KeysetPage.Cursor.decode(pageToken);
+        List<WorkOrder> rows = workOrderRepository.seekWorkOrdersWithConditions(workOrderCode, deviceCode, status,
+                startTime, endTime, cursor != null ? cursor.getDateTime() : null, cursor != null ? cursor.getId() : null,
+                KeysetPage.probe(size));
+        Long total = withTotal
+                ? workOrderRepository.countWorkOrdersWithConditions(workOrderCode, deviceCode, status, startTime, endTime)
+                : null;
+        return KeysetPage.of(rows, size, WorkOrderServiceImpl::cursorOf, total);
+    }
+
+    @Override
+    public KeysetPage<WorkOrder> searchWorkOrders(String keyword, String pageToken, int size, boolean withTotal) {
+        KeysetPage.Cursor cursor = KeysetPage.Cursor.decode(pageToken);
+        List<WorkOrder> rows = workOrderRepository.seekWorkOrdersByKeyword(keyword,
+                cursor != null ? cursor.getDateTime() : null, cursor != null ? cursor.getId() : null,
+                KeysetPage.probe(size));
+        Long total = withTotal ? workOrderRepository.countWorkOrdersByKeyword(keyword) : null;
+        return KeysetPage.of(rows, size, WorkOrderServiceImpl::cursorOf, total);
+    }
+
+    /**
+     * 派工单的续页游标（创建时间, ID）
+     */
+    private static KeysetPage.Cursor cursorOf(WorkOrder workOrder) {
+        return KeysetPage.Cursor.of(workOrder.getCreatedTime(), workOrder.getId());
+    }
+
     @Override
     public boolean hasActiveWorkOrderForDevice(Long deviceId) {
         return workOrderRepository.hasActiveWorkOrderForDevice(deviceId);
@@ -385,19 +530,129 @@ public class WorkOrderServiceImpl implements WorkOrderService {
         if (!WORK_ORDER_STATUSES.contains(status)) {
             throw new IllegalArgumentException("不支持的派工单状态: " + status);
         }
-        return workOrderRepository.batchUpdateWorkOrderStatus(workOrderIds, status);
+        int updated = workOrderRepository.batchUpdateWorkOrderStatus(workOrderIds, status);
+        eventPublisher.publishEvent(StateChangeEvent.of(Kind.WORK_ORDER, workOrderIds));
+        return updated;
     }
 
     @Override
     @Transactional
     public int batchStartProduction(List<Long> workOrderIds) {
-        return workOrderRepository.batchStartProduction(workOrderIds);
+        return countApplied(startProductionBatch(workOrderIds));
     }
 
     @Override
     @Transactional
     public int batchStopProduction(List<Long> workOrderIds) {
-        return workOrderRepository.batchStopProduction(workOrderIds);
+        return countApplied(stopProductionBatch(workOrderIds));
+    }
+
+    @Override
+    @Transactional
+    public Map<Long, TransitionResult> startProductionBatch(List<Long> workOrderIds) {
+        Map<Long, TransitionResult> results = newBatchResults(workOrderIds);
+        if (results.isEmpty()) {
+            return results;
+        }
+        
+        // 按ID顺序锁定派工单，每台设备只保留批次中第一个可开始的派工单
+        Map<Long, WorkOrder> candidates = new LinkedHashMap<>();
+        for (WorkOrder workOrder : workOrderRepository.findAllForUpdate(results.keySet())) {
+            if (!START_SOURCE_STATUSES.contains(workOrder.getStatus())) {
+                results.put(workOrder.getId(), TransitionResult.INVALID);
+            } else if (!validateDeviceForProduction(workOrder.getDeviceId())
+                    || candidates.putIfAbsent(workOrder.getDeviceId(), workOrder) != null) {
+                results.put(workOrder.getId(), TransitionResult.CONFLICT);
+            }
+        }
+        
+        // 批量占用设备：闲置 -> 工作中，只有成功占用设备的派工单开始生产
+        Set<Long> occupiedDeviceIds = deviceService.transitionDeviceStatuses(candidates.keySet(), "idle", "working");
+        List<WorkOrder> started = new ArrayList<>();
+        for (WorkOrder workOrder : candidates.values()) {
+            if (occupiedDeviceIds.contains(workOrder.getDeviceId())) {
+                results.put(workOrder.getId(), TransitionResult.APPLIED);
+                started.add(workOrder);
+            } else {
+                results.put(workOrder.getId(), TransitionResult.CONFLICT);
+            }
+        }
+        if (started.isEmpty()) {
+            return results;
+        }
+        
+        List<Long> startedIds = started.stream().map(WorkOrder::getId).collect(Collectors.toList());
+        workOrderRepository.transitionAllToInProgress(startedIds, START_SOURCE_STATUSES, LocalDateTime.now());
+        started.forEach(productionCounterAccumulator::begin);
+        eventPublisher.publishEvent(StateChangeEvent.of(Kind.WORK_ORDER, startedIds));
+        log.info("批量开始生产 - 请求: {}，开始: {}", results.size(), startedIds.size());
+        return results;
+    }
+
+    @Override
+    @Transactional
+    public Map<Long, TransitionResult> stopProductionBatch(List<Long> workOrderIds) {
+        Map<Long, TransitionResult> results = newBatchResults(workOrderIds);
+        if (results.isEmpty()) {
+            return results;
+        }
+        
+        // 按ID顺序锁定派工单并按状态转换表校验
+        List<WorkOrder> finished = new ArrayList<>();
+        for (WorkOrder workOrder : workOrderRepository.findAllForUpdate(results.keySet())) {
+            if (FINISH_SOURCE_STATUSES.contains(workOrder.getStatus())) {
+                results.put(workOrder.getId(), TransitionResult.APPLIED);
+                finished.add(workOrder);
+            } else {
+                results.put(workOrder.getId(), TransitionResult.INVALID);
+            }
+        }
+        if (finished.isEmpty()) {
+            return results;
+        }
+        
+        // 一次批量更新写入结束时间和PLC累计的产量，没有计数的派工单保留已回写的产量
+        Timestamp endTime = Timestamp.valueOf(LocalDateTime.now());
+        String completed = WorkOrderStatus.COMPLETED.getCode();
+        jdbcTemplate.batchUpdate(FINISH_WORK_ORDER_SQL, finished, finished.size(), (ps, workOrder) -> {
+            OptionalInt countedQuantity = productionCounterAccumulator.getQuantity(workOrder);
+            ps.setString(1, completed);
+            ps.setTimestamp(2, endTime);
+            if (countedQuantity.isPresent()) {
+                ps.setInt(3, countedQuantity.getAsInt());
+            } else {
+                ps.setNull(3, Types.INTEGER);
+            }
+            ps.setTimestamp(4, endTime);
+            ps.setLong(5, workOrder.getId());
+        });
+        
+        // 批量释放设备：工作中 -> 闲置，已转为维修等其他状态的设备保持不变
+        deviceService.transitionDeviceStatuses(
+                finished.stream().map(WorkOrder::getDeviceId).collect(Collectors.toSet()), "working", "idle");
+        finished.forEach(productionCounterAccumulator::finish);
+        
+        List<Long> finishedIds = finished.stream().map(WorkOrder::getId).collect(Collectors.toList());
+        eventPublisher.publishEvent(StateChangeEvent.of(Kind.WORK_ORDER, finishedIds));
+        log.info("批量停止生产 - 请求: {}，停止: {}", results.size(), finishedIds.size());
+        return results;
+    }
+
+    /**
+     * 按请求顺序初始化批量结果（去重，默认为不存在）
+     */
+    private static Map<Long, TransitionResult> newBatchResults(List<Long> workOrderIds) {
+        Map<Long, TransitionResult> results = new LinkedHashMap<>();
+        for (Long workOrderId : workOrderIds) {
+            if (workOrderId != null) {
+                results.put(workOrderId, TransitionResult.NOT_FOUND);
+            }
+        }
+        return results;
+    }
+
+    private static int countApplied(Map<Long, TransitionResult> results) {
+        return (int) results.values().stream().filter(TransitionResult::isApplied).count();
     }
 
     @Override
@@ -536,24 +791,30 @@ public class WorkOrderServiceImpl implements WorkOrderService {
 
     @Override
     public String generateWorkOrderCode() {
+        return generateWorkOrderCodes(1).get(0);
+    }
+
+    @Override
+    public List<String> generateWorkOrderCodes(int count) {
         String dateStr = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
         
-        // 查找当天的最大序号
+        // 按天的号段序列分配序号，只在当天首次分配时读取已有编号接续序号；批量生成时按数量领取号段
         String prefix = "WO" + dateStr + "-";
-        List<String> todayCodes = workOrderRepository.findWorkOrderCodesByPrefix(prefix);
-        
-        int maxSequence = 0;
-        for (String code : todayCodes) {
-            String sequencePart = code.substring(prefix.length());
-            try {
-                int sequence = Integer.parseInt(sequencePart);
-                maxSequence = Math.max(maxSequence, sequence);
-            } catch (NumberFormatException e) {
-                // 忽略格式错误的编号
+        List<String> codes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long sequence = count > 1
+                    ? codeSequenceService.next("WO", dateStr, count, () -> workOrderCodeSeed(prefix))
+                    : codeSequenceService.next("WO", dateStr, () -> workOrderCodeSeed(prefix));
+            if (sequence > MAX_WORK_ORDER_SEQUENCE) {
+                throw new IllegalStateException("当天派工单号已用完，序号超过 " + MAX_WORK_ORDER_SEQUENCE);
             }
+            codes.add(String.format("%s%03d", prefix, sequence));
         }
-        
-        return String.format("%s%03d", prefix, maxSequence + 1);
+        return codes;
+    }
+
+    private long workOrderCodeSeed(String prefix) {
+        return CodeSequenceService.maxSequence(workOrderRepository.findWorkOrderCodesByPrefix(prefix), prefix);
     }
 
     @Override
@@ -581,37 +842,102 @@ public class WorkOrderServiceImpl implements WorkOrderService {
         Map<String, Object> info = new HashMap<>();
         info.put("workOrder", workOrder);
         
-        // 添加设备信息
-        deviceRepository.findById(workOrder.getDeviceId())
+        // 添加设备信息（设备注册表，不访问数据库）
+        deviceService.findById(workOrder.getDeviceId())
                 .ifPresent(device -> info.put("device", device));
         
-        // 添加进度信息
-        info.put("progress", getWorkOrderProgress(workOrderId));
+        // 添加进度信息（基于已加载的派工单计算）
+        info.put("progress", buildProgress(workOrder, LocalDateTime.now()));
         
         return info;
     }
 
     @Override
     public Map<String, Object> getWorkOrderProgress(Long workOrderId) {
-        WorkOrder workOrder = workOrderRepository.findById(workOrderId).orElse(null);
-        if (workOrder == null) {
-            return null;
+        return workOrderRepository.findById(workOrderId)
+                .map(workOrder -> buildProgress(workOrder, LocalDateTime.now()))
+                .orElse(null);
+    }
+
+    @Override
+    public Map<Long, Map<String, Object>> getWorkOrdersProgress(List<Long> workOrderIds) {
+        Map<Long, Map<String, Object>> progressMap = new LinkedHashMap<>();
+        if (workOrderIds == null || workOrderIds.isEmpty()) {
+            return progressMap;
         }
         
+        // 一次查询加载全部派工单
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, WorkOrder> workOrders = workOrderRepository.findAllById(workOrderIds).stream()
+                .collect(Collectors.toMap(WorkOrder::getId, workOrder -> workOrder));
+        for (Long workOrderId : workOrderIds) {
+            WorkOrder workOrder = workOrders.get(workOrderId);
+            if (workOrder != null) {
+                progressMap.put(workOrderId, buildProgress(workOrder, now));
+            }
+        }
+        return progressMap;
+    }
+
+    @Override
+    public List<Map<String, Object>> getInProgressWorkOrdersProgress() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (WorkOrder workOrder : workOrderRepository.findByStatus("in_progress")) {
+            Map<String, Object> item = buildProgress(workOrder, now);
+            item.put("workOrderId", workOrder.getId());
+            item.put("orderNo", workOrder.getOrderNo());
+            item.put("deviceId", workOrder.getDeviceId());
+            item.put("deviceCode", workOrder.getDeviceCode());
+            item.put("startTime", workOrder.getStartTime());
+            deviceService.findById(workOrder.getDeviceId()).ifPresent(device -> {
+                item.put("deviceName", device.getDeviceName());
+                item.put("deviceType", device.getDeviceType());
+            });
+            result.add(item);
+        }
+        return result;
+    }
+
+    @Override
+    public Double calculateCompletionRate(Long workOrderId) {
+        return workOrderRepository.findById(workOrderId)
+                .map(WorkOrderServiceImpl::completionRate)
+                .orElse(0.0);
+    }
+
+    @Override
+    public Long calculateProductionDuration(Long workOrderId) {
+        return workOrderRepository.findById(workOrderId)
+                .map(workOrder -> productionDuration(workOrder, LocalDateTime.now()))
+                .orElse(0L);
+    }
+
+    /**
+     * 聚合结果转换为 long（没有记录时 SUM 为空）
+     */
+    private static long longValue(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
+    /**
+     * 根据已加载的派工单计算生产进度
+     */
+    private static Map<String, Object> buildProgress(WorkOrder workOrder, LocalDateTime now) {
         Map<String, Object> progress = new HashMap<>();
-        progress.put("completionRate", calculateCompletionRate(workOrderId));
-        progress.put("productionDuration", calculateProductionDuration(workOrderId));
+        progress.put("completionRate", completionRate(workOrder));
+        progress.put("productionDuration", productionDuration(workOrder, now));
         progress.put("status", workOrder.getStatus());
         progress.put("plannedQuantity", workOrder.getPlannedQuantity());
         progress.put("actualQuantity", workOrder.getActualQuantity());
-        
         return progress;
     }
 
-    @Override
-    public Double calculateCompletionRate(Long workOrderId) {
-        WorkOrder workOrder = workOrderRepository.findById(workOrderId).orElse(null);
-        if (workOrder == null || workOrder.getPlannedQuantity() == null || workOrder.getPlannedQuantity() == 0) {
+    /**
+     * 完成率（百分比）
+     */
+    private static double completionRate(WorkOrder workOrder) {
+        if (workOrder.getPlannedQuantity() == null || workOrder.getPlannedQuantity() == 0) {
             return 0.0;
         }
         
@@ -619,14 +945,15 @@ public class WorkOrderServiceImpl implements WorkOrderService {
         return (double) actualQuantity / workOrder.getPlannedQuantity() * 100;
     }
 
-    @Override
-    public Long calculateProductionDuration(Long workOrderId) {
-        WorkOrder workOrder = workOrderRepository.findById(workOrderId).orElse(null);
-        if (workOrder == null || workOrder.getStartTime() == null) {
+    /**
+     * 生产时长（分钟），未结束的派工单计算到 now
+     */
+    private static long productionDuration(WorkOrder workOrder, LocalDateTime now) {
+        if (workOrder.getStartTime() == null) {
             return 0L;
         }
         
-        LocalDateTime endTime = workOrder.getEndTime() != null ? workOrder.getEndTime() : LocalDateTime.now();
+        LocalDateTime endTime = workOrder.getEndTime() != null ? workOrder.getEndTime() : now;
         return ChronoUnit.MINUTES.between(workOrder.getStartTime(), endTime);
     }
 
@@ -634,20 +961,13 @@ public class WorkOrderServiceImpl implements WorkOrderService {
     public Map<String, Object> getProductionEfficiencyStatistics(LocalDateTime startDate, LocalDateTime endDate) {
         Map<String, Object> stats = new HashMap<>();
         
-        List<WorkOrder> workOrders = workOrderRepository.findWorkOrdersByCreatedTimeBetween(startDate, endDate);
-        
-        long totalOrders = workOrders.size();
-        long completedOrders = workOrders.stream()
-                .filter(wo -> "completed".equals(wo.getStatus()))
-                .count();
-        
-        int totalPlanned = workOrders.stream()
-                .mapToInt(wo -> wo.getPlannedQuantity() != null ? wo.getPlannedQuantity() : 0)
-                .sum();
+        // 数据库端一次聚合，不加载派工单实体
+        Object[] totals = workOrderRepository.getProductionEfficiencyTotals(startDate, endDate).get(0);
         
-        int totalActual = workOrders.stream()
-                .mapToInt(wo -> wo.getActualQuantity() != null ? wo.getActualQuantity() : 0)
-                .sum();
+        long totalOrders = longValue(totals[0]);
+        long completedOrders = longValue(totals[1]);
+        long totalPlanned = longValue(totals[2]);
+        long totalActual = longValue(totals[3]);
         
         stats.put("totalOrders", totalOrders);
         stats.put("completedOrders", completedOrders);
@@ -688,49 +1008,86 @@ public class WorkOrderServiceImpl implements WorkOrderService {
     @Transactional
     public int resetAllWorkOrdersStatus() {
         // 将所有进行中的派工单设置为已完成
-        return workOrderRepository.batchUpdateWorkOrderStatus(
+        int updated = workOrderRepository.batchUpdateWorkOrderStatus(
                 workOrderRepository.findByStatus("in_progress").stream()
                         .map(WorkOrder::getId)
                         .collect(Collectors.toList()),
                 "completed"
         );
+        eventPublisher.publishEvent(StateChangeEvent.all(Kind.WORK_ORDER));
+        return updated;
     }
 
     @Override
     public List<WorkOrder> getOverdueWorkOrders(int hours) {
+        if (hours == workOrderDeadlineMonitor.getThresholdHours(WorkOrderDeadlineEvent.Type.OVERDUE)) {
+            // 与监控阈值一致时直接使用时间轮已检测到的派工单
+            return workOrderRepository.findAllById(workOrderDeadlineMonitor.getExceededIds(WorkOrderDeadlineEvent.Type.OVERDUE));
+        }
         LocalDateTime cutoffTime = LocalDateTime.now().minusHours(hours);
         return workOrderRepository.findOverdueWorkOrders(cutoffTime);
     }
 
     @Override
     public List<WorkOrder> getLongRunningWorkOrders(int hours) {
+        if (hours == workOrderDeadlineMonitor.getThresholdHours(WorkOrderDeadlineEvent.Type.LONG_RUNNING)) {
+            return workOrderRepository.findAllById(workOrderDeadlineMonitor.getExceededIds(WorkOrderDeadlineEvent.Type.LONG_RUNNING));
+        }
         LocalDateTime cutoffTime = LocalDateTime.now().minusHours(hours);
         return workOrderRepository.findLongRunningWorkOrders(cutoffTime);
     }
 
+    /**
+     * 不在事务中执行：读取PLC是网络IO，不能占用数据库连接等待设备响应；回写由累加器在独立的短事务中完成
+     */
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public boolean syncActualQuantityFromPLC(Long workOrderId) {
-        // TODO: 实现PLC数据同步逻辑
-        // 这里应该调用PLC服务获取实际产量数据
-        log.info("同步PLC数据 - 派工单ID: {}", workOrderId);
+        WorkOrder workOrder = workOrderRepository.findById(workOrderId).orElse(null);
+        if (workOrder == null || !"in_progress".equals(workOrder.getStatus())) {
+            return false;
+        }
+        
+        Integer counter = plcAcquisitionEngine.readDeviceCounter(workOrder.getDeviceId()).orElse(null);
+        if (counter == null) {
+            log.warn("未能读取设备计数 - 派工单ID: {}, 设备: {}", workOrderId, workOrder.getDeviceCode());
+            return false;
+        }
+        
+        productionCounterAccumulator.onCounter(workOrder.getDeviceId(), counter);
+        productionCounterAccumulator.flush();
+        
+        log.debug("同步PLC数据 - 派工单ID: {}, 实际产量: {}", workOrderId,
+                productionCounterAccumulator.getQuantity(workOrder.getDeviceId()).orElse(-1));
         return true;
     }
 
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public int batchSyncActualQuantityFromPLC() {
-        // TODO: 实现批量PLC数据同步逻辑
-        List<WorkOrder> inProgressOrders = getInProgressWorkOrders();
-        int syncCount = 0;
-        
-        for (WorkOrder workOrder : inProgressOrders) {
-            if (syncActualQuantityFromPLC(workOrder.getId())) {
-                syncCount++;
-            }
+        // 一个扫描周期内并发读取全部设备计数（事务外），再由累加器在短事务中回写
+        return applyActualQuantitiesFromPLC(plcAcquisitionEngine.readDeviceCounters());
+    }
+
+    @Override
+    @Transactional
+    public int applyActualQuantitiesFromPLC(Map<Long, Integer> deviceCounters) {
+        if (deviceCounters.isEmpty()) {
+            return 0;
         }
         
-        log.info("批量同步PLC数据完成，同步数量: {}", syncCount);
+        // 原始计数经累加器换算为产量增量（处理回绕和清零）后回写
+        deviceCounters.forEach(productionCounterAccumulator::onCounter);
+        int syncCount = productionCounterAccumulator.flush();
+        
+        log.debug("批量同步PLC数据完成，同步数量: {}", syncCount);
         return syncCount;
     }
-}
\ No newline at end of file
+
+    /**
+     * 发布派工单变化事件（事务提交后推送给订阅的客户端）
+     */
+    private void publishChange(Long workOrderId) {
+        eventPublisher.publishEvent(StateChangeEvent.of(Kind.WORK_ORDER, workOrderId));
+    }
+}
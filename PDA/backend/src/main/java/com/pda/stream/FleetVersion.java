@@ -0,0 +1,63 @@
+package com.pda.stream;
+
+import com.pda.stream.StateChangeEvent.Kind;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按数据类型区分的数据版本
+ * 设备、派工单、维修记录各自维护版本号，每次变化在事务提交后递增对应类型的版本号；
+ * 概览类接口只按其依赖的数据类型计算ETag，其他类型的变化（如PLC产量每2秒刷新派工单）不会让它失效
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Component
+public class FleetVersion {
+
+    /**
+     * 版本纪元，进程重启后旧的ETag全部失效
+     */
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Map<Kind, AtomicLong> versions = new EnumMap<>(Kind.class);
+
+    public FleetVersion() {
+        // 构造时放入全部类型，之后只读取映射、递增计数器，无需额外同步
+        for (Kind kind : Kind.values()) {
+            versions.put(kind, new AtomicLong());
+        }
+    }
+
+    /**
+     * 事务提交后递增对应类型的版本（先提交数据再递增，读取到旧版本号的响应最多多返回一次完整数据）
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStateChange(StateChangeEvent event) {
+        versions.get(event.getKind()).incrementAndGet();
+    }
+
+    /**
+     * 指定数据类型的当前版本号
+     * 多个类型时取各版本号之和：每个版本号只增不减，任一类型变化都会使和增大
+     */
+    public long current(Kind... kinds) {
+        long version = 0;
+        for (Kind kind : kinds) {
+            version += versions.get(kind).get();
+        }
+        return version;
+    }
+
+    /**
+     * 指定版本对应的ETag
+     */
+    public String etag(long version) {
+        return "\"" + epoch + "-" + version + "\"";
+    }
+}
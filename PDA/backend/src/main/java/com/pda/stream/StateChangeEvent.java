@@ -0,0 +1,67 @@
+package com.pda.stream;
+
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 状态变化事件
+ * 只携带变化对象的类型和ID，推送时再读取已提交的最新状态；ID为空表示该类型全部对象都可能变化
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Getter
+public class StateChangeEvent {
+
+    /**
+     * 变化对象类型，同时作为推送的事件名称
+     */
+    public enum Kind {
+        DEVICE("device"),
+        WORK_ORDER("work_order"),
+        MAINTENANCE("maintenance");
+
+        private final String eventName;
+
+        Kind(String eventName) {
+            this.eventName = eventName;
+        }
+
+        public String getEventName() {
+            return eventName;
+        }
+    }
+
+    private final Kind kind;
+
+    /**
+     * 变化对象ID，为空表示全部
+     */
+    private final Set<Long> ids;
+
+    private StateChangeEvent(Kind kind, Set<Long> ids) {
+        this.kind = kind;
+        this.ids = ids;
+    }
+
+    public static StateChangeEvent of(Kind kind, Long id) {
+        return new StateChangeEvent(kind, Collections.singleton(id));
+    }
+
+    public static StateChangeEvent of(Kind kind, Collection<Long> ids) {
+        return new StateChangeEvent(kind, Collections.unmodifiableSet(new LinkedHashSet<>(ids)));
+    }
+
+    public static StateChangeEvent all(Kind kind) {
+        return new StateChangeEvent(kind, null);
+    }
+
+    public boolean isAll() {
+        return ids == null;
+    }
+}
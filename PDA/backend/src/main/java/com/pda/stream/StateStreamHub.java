@@ -0,0 +1,581 @@
+package com.pda.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pda.entity.Device;
+import com.pda.entity.MaintenanceRecord;
+import com.pda.entity.WorkOrder;
+import com.pda.repository.MaintenanceRecordRepository;
+import com.pda.repository.WorkOrderRepository;
+import com.pda.service.DeviceRegistry;
+import com.pda.stream.StateChangeEvent.Kind;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 状态推送中心（Server-Sent Events）
+ * 订阅时先发送设备、进行中派工单和维修的快照，之后只推送变化的设备状态、派工单进度和维修记录。
+ * 事件在事务提交后合并，由单个推送线程读取一次最新状态、序列化一次，同一份报文放入每个订阅者的有界发送队列，
+ * 由发送线程异步写出，一个客户端网络阻塞不会影响其他订阅者；发送队列已满或单次写出超时的订阅者被断开，
+ * 客户端重连后续传。每个事件带有序号，客户端断线重连时携带 Last-Event-ID 从断点续传，超出保留范围时重新发送快照
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Slf4j
+@Component
+public class StateStreamHub {
+
+    private static final MediaType TEXT_PLAIN_UTF8 = new MediaType("text", "plain", StandardCharsets.UTF_8);
+
+    private static final MediaType TEXT_EVENT_STREAM_UTF8 = new MediaType("text", "event-stream", StandardCharsets.UTF_8);
+
+    private static final String HEARTBEAT_FRAME = ":heartbeat\n\n";
+
+    private static final String SNAPSHOT_EVENT = "snapshot";
+
+    private static final List<String> ACTIVE_WORK_ORDER_STATUSES = Arrays.asList("pending", "in_progress");
+
+    private static final List<String> ACTIVE_MAINTENANCE_STATUSES = Arrays.asList("reported", "pending", "in_progress");
+
+    private final DeviceRegistry deviceRegistry;
+    private final WorkOrderRepository workOrderRepository;
+    private final MaintenanceRecordRepository maintenanceRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final StateStreamProperties config;
+
+    /**
+     * 事件序号的纪元，进程重启后旧的 Last-Event-ID 不会被误认为有效断点
+     */
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    /**
+     * 已占用的订阅名额（包括尚未发送完快照的订阅）
+     */
+    private final AtomicInteger reservedSubscribers = new AtomicInteger();
+
+    /**
+     * 等待推送的变化（按类型合并），由 pending 自身加锁
+     */
+    private final Map<Kind, Set<Long>> pending = new EnumMap<>(Kind.class);
+
+    private final Set<Kind> pendingAll = EnumSet.noneOf(Kind.class);
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    /**
+     * 以下字段只在推送线程中访问
+     */
+    private final Deque<Frame> recentFrames = new ArrayDeque<>();
+    private long sequence;
+    private Frame snapshotFrame;
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * 发送线程：每个订阅者同一时间最多占用一个线程，按顺序写出自己的发送队列
+     */
+    private ExecutorService senderExecutor;
+
+    public StateStreamHub(DeviceRegistry deviceRegistry, WorkOrderRepository workOrderRepository,
+                          MaintenanceRecordRepository maintenanceRecordRepository, ObjectMapper objectMapper,
+                          StateStreamProperties config, MeterRegistry meterRegistry) {
+        this.deviceRegistry = deviceRegistry;
+        this.workOrderRepository = workOrderRepository;
+        this.maintenanceRecordRepository = maintenanceRecordRepository;
+        this.objectMapper = objectMapper;
+        this.config = config;
+        Gauge.builder("state.stream.subscribers", subscribers, List::size)
+                .description("状态推送订阅连接数量")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "state-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        senderExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "state-stream-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::heartbeat, config.getHeartbeatInterval(), config.getHeartbeatInterval(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 新建订阅
+     *
+     * @param lastEventId 客户端最后收到的事件ID，为空或已超出保留范围时先发送快照
+     */
+    public ResponseBodyEmitter subscribe(String lastEventId) {
+        // 先原子地占用名额，并发订阅不会超过上限
+        int reserved;
+        do {
+            reserved = reservedSubscribers.get();
+            if (reserved >= config.getMaxSubscribers()) {
+                throw new IllegalStateException("状态推送订阅连接数已达上限: " + config.getMaxSubscribers());
+            }
+        } while (!reservedSubscribers.compareAndSet(reserved, reserved + 1));
+        EventStream emitter = new EventStream(config.getConnectionTimeout());
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        emitter.onTimeout(emitter::complete);
+        executor.execute(() -> attach(subscriber, lastEventId));
+        return emitter;
+    }
+
+    /**
+     * 收集事务提交后的状态变化（没有事务时立即收集），合并后由推送线程统一推送
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStateChange(StateChangeEvent event) {
+        synchronized (pending) {
+            if (event.isAll()) {
+                pendingAll.add(event.getKind());
+            } else {
+                pending.computeIfAbsent(event.getKind(), kind -> new LinkedHashSet<>()).addAll(event.getIds());
+            }
+        }
+        scheduleFlush(config.getCoalesceDelay());
+    }
+
+    /**
+     * 当前订阅连接数量
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    private void scheduleFlush(long delay) {
+        if (executor != null && flushScheduled.compareAndSet(false, true)) {
+            executor.schedule(this::flush, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void attach(Subscriber subscriber, String lastEventId) {
+        List<Frame> frames = framesAfter(lastEventId);
+        try {
+            if (frames == null) {
+                frames = Collections.singletonList(snapshot());
+            }
+            if (frames.size() > config.getSendQueueCapacity()) {
+                // 需要续传的事件超过发送队列容量时改为发送快照
+                frames = Collections.singletonList(snapshot());
+            }
+        } catch (RuntimeException e) {
+            log.warn("生成状态快照失败: {}", e.getMessage());
+            subscriber.close();
+            subscriber.emitter.completeWithError(e);
+            return;
+        }
+        for (Frame frame : frames) {
+            if (!subscriber.send(frame.text)) {
+                subscriber.drop("发送队列已满");
+                return;
+            }
+        }
+        if (!subscriber.closed.get()) {
+            subscribers.add(subscriber);
+        }
+    }
+
+    /**
+     * 获取指定事件之后保留的事件，无法续传时返回 null
+     */
+    private List<Frame> framesAfter(String lastEventId) {
+        if (lastEventId == null || !lastEventId.startsWith(epoch + ":")) {
+            return null;
+        }
+        long lastSequence;
+        try {
+            lastSequence = Long.parseLong(lastEventId.substring(epoch.length() + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (lastSequence == sequence) {
+            return Collections.emptyList();
+        }
+        if (lastSequence > sequence || recentFrames.isEmpty() || lastSequence < recentFrames.getFirst().sequence - 1) {
+            return null;
+        }
+        List<Frame> frames = new ArrayList<>();
+        for (Frame frame : recentFrames) {
+            if (frame.sequence > lastSequence) {
+                frames.add(frame);
+            }
+        }
+        return frames;
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        Map<Kind, Set<Long>> changes;
+        Set<Kind> all;
+        synchronized (pending) {
+            changes = new EnumMap<>(pending);
+            all = EnumSet.copyOf(pendingAll);
+            pending.clear();
+            pendingAll.clear();
+        }
+        if (subscribers.isEmpty()) {
+            // 没有订阅者时不读取状态，丢弃保留的事件，之后重连的客户端从快照开始
+            sequence++;
+            recentFrames.clear();
+            snapshotFrame = null;
+            return;
+        }
+        try {
+            if (!all.isEmpty()) {
+                broadcast(nextFrame(SNAPSHOT_EVENT, buildSnapshot()));
+                return;
+            }
+            for (Map.Entry<Kind, Set<Long>> change : changes.entrySet()) {
+                broadcast(nextFrame(change.getKey().getEventName(), load(change.getKey(), change.getValue())));
+            }
+        } catch (RuntimeException e) {
+            log.warn("推送状态变化失败，稍后重新发送快照: {}", e.getMessage());
+            synchronized (pending) {
+                pendingAll.addAll(changes.keySet());
+                pendingAll.addAll(all);
+            }
+            scheduleFlush(config.getHeartbeatInterval());
+        }
+    }
+
+    /**
+     * 发送心跳，同时断开单次写出超过期限的订阅者
+     */
+    private void heartbeat() {
+        long now = System.nanoTime();
+        long sendTimeout = TimeUnit.MILLISECONDS.toNanos(config.getSendTimeout());
+        for (Subscriber subscriber : subscribers) {
+            long writeStartedAt = subscriber.writeStartedAt;
+            if (writeStartedAt != 0 && now - writeStartedAt > sendTimeout) {
+                subscriber.drop("写出超时");
+            } else if (!subscriber.send(HEARTBEAT_FRAME)) {
+                subscriber.drop("发送队列已满");
+            }
+        }
+    }
+
+    /**
+     * 把报文放入全部订阅者的发送队列（不等待写出）
+     */
+    private void broadcast(Frame frame) {
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.send(frame.text)) {
+                subscriber.drop("发送队列已满");
+            }
+        }
+    }
+
+    /**
+     * 生成下一个事件报文（只序列化一次）并保留用于续传
+     */
+    private Frame nextFrame(String eventName, Object data) {
+        Frame frame = new Frame(sequence + 1, format(sequence + 1, eventName, data));
+        sequence = frame.sequence;
+        recentFrames.addLast(frame);
+        while (recentFrames.size() > config.getReplayCapacity()) {
+            recentFrames.removeFirst();
+        }
+        snapshotFrame = null;
+        return frame;
+    }
+
+    /**
+     * 获取当前序号对应的快照报文，序号不变时复用
+     */
+    private Frame snapshot() {
+        if (snapshotFrame == null || snapshotFrame.sequence != sequence) {
+            snapshotFrame = new Frame(sequence, format(sequence, SNAPSHOT_EVENT, buildSnapshot()));
+        }
+        return snapshotFrame;
+    }
+
+    private String format(long frameSequence, String eventName, Object data) {
+        try {
+            // JSON中的换行会被转义，整个数据可以放在一行 data 字段中
+            return "id:" + epoch + ":" + frameSequence + "\nevent:" + eventName + "\ndata:"
+                    + objectMapper.writeValueAsString(data) + "\n\n";
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("序列化状态推送数据失败", e);
+        }
+    }
+
+    private Map<String, Object> buildSnapshot() {
+        List<Map<String, Object>> devices = new ArrayList<>();
+        for (Device device : deviceRegistry.findAll()) {
+            devices.add(toMap(device));
+        }
+        List<Map<String, Object>> workOrders = new ArrayList<>();
+        for (String status : ACTIVE_WORK_ORDER_STATUSES) {
+            for (WorkOrder workOrder : workOrderRepository.findByStatus(status)) {
+                workOrders.add(toMap(workOrder));
+            }
+        }
+        List<Map<String, Object>> maintenance = new ArrayList<>();
+        for (String status : ACTIVE_MAINTENANCE_STATUSES) {
+            for (MaintenanceRecord record : maintenanceRecordRepository.findByStatus(status)) {
+                maintenance.add(toMap(record));
+            }
+        }
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("devices", devices);
+        snapshot.put("workOrders", workOrders);
+        snapshot.put("maintenance", maintenance);
+        return snapshot;
+    }
+
+    /**
+     * 读取变化对象的最新状态，已删除的对象只返回ID和删除标记
+     */
+    private List<Map<String, Object>> load(Kind kind, Set<Long> ids) {
+        Map<Long, Map<String, Object>> items = new LinkedHashMap<>();
+        switch (kind) {
+            case DEVICE:
+                for (Long id : ids) {
+                    deviceRegistry.findById(id).ifPresent(device -> items.put(id, toMap(device)));
+                }
+                break;
+            case WORK_ORDER:
+                for (WorkOrder workOrder : workOrderRepository.findAllById(ids)) {
+                    items.put(workOrder.getId(), toMap(workOrder));
+                }
+                break;
+            case MAINTENANCE:
+                for (MaintenanceRecord record : maintenanceRecordRepository.findAllById(ids)) {
+                    items.put(record.getId(), toMap(record));
+                }
+                break;
+            default:
+                break;
+        }
+        List<Map<String, Object>> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Map<String, Object> item = items.get(id);
+            if (item == null) {
+                item = new LinkedHashMap<>();
+                item.put("id", id);
+                item.put("deleted", true);
+            }
+            result.add(item);
+        }
+        return result;
+    }
+
+    private static Map<String, Object> toMap(Device device) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("id", device.getId());
+        item.put("deviceCode", device.getDeviceCode());
+        item.put("deviceName", device.getDeviceName());
+        item.put("deviceType", device.getDeviceType());
+        item.put("status", device.getStatus());
+        item.put("updatedTime", device.getUpdatedTime());
+        return item;
+    }
+
+    private static Map<String, Object> toMap(WorkOrder workOrder) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("id", workOrder.getId());
+        item.put("orderNo", workOrder.getOrderNo());
+        item.put("deviceId", workOrder.getDeviceId());
+        item.put("deviceCode", workOrder.getDeviceCode());
+        item.put("status", workOrder.getStatus());
+        item.put("plannedQuantity", workOrder.getPlannedQuantity());
+        item.put("actualQuantity", workOrder.getActualQuantity());
+        Integer planned = workOrder.getPlannedQuantity();
+        Integer actual = workOrder.getActualQuantity();
+        if (planned != null && planned > 0 && actual != null) {
+            item.put("progress", Math.round(actual * 1000.0 / planned) / 10.0);
+        }
+        item.put("startTime", workOrder.getStartTime());
+        item.put("endTime", workOrder.getEndTime());
+        item.put("updatedTime", workOrder.getUpdatedTime());
+        return item;
+    }
+
+    private static Map<String, Object> toMap(MaintenanceRecord record) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("id", record.getId());
+        item.put("deviceId", record.getDeviceId());
+        item.put("deviceCode", record.getDeviceCode());
+        item.put("status", record.getStatus());
+        item.put("faultDescription", record.getFaultDescription());
+        item.put("reportedBy", record.getReportedBy());
+        item.put("repairPerson", record.getRepairPerson());
+        item.put("reportTime", record.getReportTime());
+        item.put("repairTime", record.getRepairTime());
+        item.put("updatedTime", record.getUpdatedTime());
+        return item;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        if (senderExecutor != null) {
+            senderExecutor.shutdownNow();
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    /**
+     * 已格式化的事件报文
+     */
+    private static final class Frame {
+        private final long sequence;
+        private final String text;
+
+        private Frame(long sequence, String text) {
+            this.sequence = sequence;
+            this.text = text;
+        }
+    }
+
+    /**
+     * 订阅者：有界发送队列，由发送线程按顺序写出
+     */
+    private final class Subscriber {
+        private final ResponseBodyEmitter emitter;
+        private final Queue<String> outbound = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        /**
+         * 当前写出开始的时间（System.nanoTime，没有正在写出的报文时为0）
+         */
+        private volatile long writeStartedAt;
+
+        private Subscriber(ResponseBodyEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * 把已格式化的报文放入发送队列，队列已满或连接已关闭时返回 false
+         */
+        private boolean send(String text) {
+            if (closed.get()) {
+                return false;
+            }
+            if (queued.incrementAndGet() > config.getSendQueueCapacity()) {
+                queued.decrementAndGet();
+                return false;
+            }
+            outbound.add(text);
+            if (draining.compareAndSet(false, true)) {
+                senderExecutor.execute(this::drain);
+            }
+            return true;
+        }
+
+        /**
+         * 在发送线程中写出队列中的报文，直到队列为空
+         */
+        private void drain() {
+            do {
+                String text;
+                while ((text = outbound.poll()) != null) {
+                    queued.decrementAndGet();
+                    if (!write(text)) {
+                        close();
+                        return;
+                    }
+                }
+                draining.set(false);
+            } while (!outbound.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        private boolean write(String text) {
+            writeStartedAt = System.nanoTime();
+            try {
+                emitter.send(text, TEXT_PLAIN_UTF8);
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                return false;
+            } finally {
+                writeStartedAt = 0;
+            }
+        }
+
+        /**
+         * 断开跟不上推送的订阅者，客户端重连后从断点续传
+         */
+        private void drop(String reason) {
+            subscribers.remove(this);
+            if (closed.get()) {
+                return;
+            }
+            log.warn("断开状态推送订阅者: {}", reason);
+            close();
+            // 正在阻塞写出的连接会持有发送器的锁，在发送线程中结束响应，不阻塞推送线程
+            senderExecutor.execute(emitter::complete);
+        }
+
+        /**
+         * 移除订阅并释放名额（只执行一次）
+         */
+        private void close() {
+            if (closed.compareAndSet(false, true)) {
+                subscribers.remove(this);
+                outbound.clear();
+                reservedSubscribers.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * 以 text/event-stream 响应的输出流，报文由推送中心预先格式化
+     */
+    private static final class EventStream extends ResponseBodyEmitter {
+
+        private EventStream(long timeout) {
+            super(timeout);
+        }
+
+        @Override
+        protected void extendResponse(ServerHttpResponse outputMessage) {
+            super.extendResponse(outputMessage);
+            HttpHeaders headers = outputMessage.getHeaders();
+            headers.setContentType(TEXT_EVENT_STREAM_UTF8);
+            headers.setCacheControl("no-cache");
+            // 关闭Nginx等反向代理的缓冲，事件立即送达
+            headers.set("X-Accel-Buffering", "no");
+        }
+    }
+}
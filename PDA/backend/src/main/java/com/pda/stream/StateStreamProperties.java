@@ -0,0 +1,53 @@
+package com.pda.stream;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 状态推送配置（对应 app.stream.*）
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.stream")
+public class StateStreamProperties {
+
+    /**
+     * 合并推送的等待时间（毫秒），等待期间同一对象的多次变化只推送一次
+     */
+    private long coalesceDelay = 100;
+
+    /**
+     * 保留用于断线续传的最近事件数量
+     */
+    private int replayCapacity = 1000;
+
+    /**
+     * 心跳间隔（毫秒），保持代理和移动网络上的连接
+     */
+    private long heartbeatInterval = 15000;
+
+    /**
+     * 单个连接的超时时间（毫秒），超时后客户端携带 Last-Event-ID 重新连接
+     */
+    private long connectionTimeout = 1800000;
+
+    /**
+     * 最大订阅连接数
+     */
+    private int maxSubscribers = 500;
+
+    /**
+     * 每个订阅者的发送队列容量（报文数量），队列已满时断开该订阅者
+     */
+    private int sendQueueCapacity = 256;
+
+    /**
+     * 单次写出的最长时间（毫秒），超过时断开该订阅者
+     */
+    private long sendTimeout = 30000;
+}
@@ -0,0 +1,117 @@
+package com.pda.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pda.dto.ApiResponse;
+import com.pda.stream.StateChangeEvent.Kind;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 按数据版本缓存的概览响应
+ * 每个接口只按其依赖的数据类型计算版本：客户端携带的 If-None-Match 与当前版本一致时直接返回304；
+ * 版本未变化时返回已序列化的响应体，不访问数据库也不重新序列化JSON
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Component
+@RequiredArgsConstructor
+public class VersionedResponseCache {
+
+    /**
+     * 缓存的响应数量上限（按接口和参数区分），超过后不再缓存新的组合
+     */
+    private static final int MAX_ENTRIES = 64;
+
+    private static final MediaType APPLICATION_JSON_UTF8 = new MediaType("application", "json", StandardCharsets.UTF_8);
+
+    private final FleetVersion fleetVersion;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 返回带ETag的响应
+     *
+     * @param key         缓存键（接口及参数）
+     * @param ifNoneMatch 请求头 If-None-Match
+     * @param loader      版本变化后加载数据
+     * @param dependsOn   响应数据依赖的数据类型，只有这些类型变化时ETag才变化
+     */
+    public ResponseEntity<byte[]> respond(String key, String ifNoneMatch, Supplier<?> loader, Kind... dependsOn) {
+        if (dependsOn.length == 0) {
+            throw new IllegalArgumentException("缓存响应必须声明依赖的数据类型: " + key);
+        }
+        // 先读取版本再加载数据，数据提交后才递增版本，ETag不会比数据新
+        long version = fleetVersion.current(dependsOn);
+        String etag = fleetVersion.etag(version);
+        if (matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+
+        Entry entry = entries.get(key);
+        if (entry == null || entry.version != version) {
+            entry = new Entry(version, serialize(loader.get()));
+            if (entries.size() < MAX_ENTRIES || entries.containsKey(key)) {
+                // 并发加载时保留版本较新的结果
+                entries.merge(key, entry, (current, loaded) -> loaded.version >= current.version ? loaded : current);
+            }
+        }
+        return ResponseEntity.ok()
+                .eTag(fleetVersion.etag(entry.version))
+                .cacheControl(CacheControl.noCache())
+                .contentType(APPLICATION_JSON_UTF8)
+                .body(entry.body);
+    }
+
+    private byte[] serialize(Object data) {
+        try {
+            return objectMapper.writeValueAsBytes(ApiResponse.success(data));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("序列化响应数据失败", e);
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals(etag) || value.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 某个版本的已序列化响应体
+     */
+    private static final class Entry {
+        private final long version;
+        private final byte[] body;
+
+        private Entry(long version, byte[] body) {
+            this.version = version;
+            this.body = body;
+        }
+    }
+}
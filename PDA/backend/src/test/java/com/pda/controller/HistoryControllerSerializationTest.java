@@ -0,0 +1,127 @@
+package com.pda.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pda.dto.ApiResponse;
+import com.pda.dto.KeysetPage;
+import com.pda.entity.Device;
+import com.pda.entity.MaintenanceRecord;
+import com.pda.entity.WorkOrder;
+import com.pda.service.MaintenanceRecordService;
+import com.pda.service.WorkOrderService;
+import org.hibernate.LazyInitializationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 历史记录游标分页响应序列化测试
+ * 会话外的懒加载设备关联用访问即抛出 LazyInitializationException 的设备代替
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+class HistoryControllerSerializationTest {
+
+    private static final LocalDateTime CREATED_TIME = LocalDateTime.of(2025, 1, 8, 9, 30);
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final WorkOrderService workOrderService = mock(WorkOrderService.class);
+
+    private final MaintenanceRecordService maintenanceRecordService = mock(MaintenanceRecordService.class);
+
+    private final HistoryController controller = new HistoryController(workOrderService, maintenanceRecordService);
+
+    @Test
+    void serializesWorkOrderPageWithoutTouchingLazyDevice() throws Exception {
+        WorkOrder first = workOrder(2L, "WO20250108-002");
+        WorkOrder second = workOrder(1L, "WO20250108-001");
+        KeysetPage<WorkOrder> page = KeysetPage.of(Arrays.asList(first, second, workOrder(0L, "WO20250108-000")), 2,
+                workOrder -> KeysetPage.Cursor.of(workOrder.getCreatedTime(), workOrder.getId()), null);
+        when(workOrderService.searchWorkOrders(eq("WO"), any(), anyInt(), anyBoolean())).thenReturn(page);
+
+        ApiResponse<KeysetPage<WorkOrder>> response = controller.seekWorkOrders("WO", null, null, null, null, null, null, 2, false);
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(response));
+
+        JsonNode content = json.path("data").path("content");
+        assertThat(content).hasSize(2);
+        assertThat(content.get(0).path("orderNo").asText()).isEqualTo("WO20250108-002");
+        assertThat(content.get(0).path("deviceCode").asText()).isEqualTo("D001");
+        assertThat(content.get(0).has("device")).isFalse();
+        assertThat(json.path("data").path("hasNext").asBoolean()).isTrue();
+        assertThat(json.path("data").path("nextToken").asText()).isNotEmpty();
+    }
+
+    @Test
+    void serializesMaintenanceRecordPageWithoutTouchingLazyDevice() throws Exception {
+        MaintenanceRecord record = new MaintenanceRecord();
+        record.setId(5L);
+        record.setDeviceId(1L);
+        record.setDeviceCode("D001");
+        record.setStatus("reported");
+        record.setCreatedTime(CREATED_TIME);
+        record.setUpdatedTime(CREATED_TIME);
+        record.setDevice(uninitializedDevice());
+        KeysetPage<MaintenanceRecord> page = KeysetPage.of(Arrays.asList(record), 20,
+                row -> KeysetPage.Cursor.of(row.getCreatedTime(), row.getId()), 1L);
+        when(maintenanceRecordService.searchMaintenanceRecords(eq(""), any(), anyInt(), anyBoolean())).thenReturn(page);
+
+        ApiResponse<KeysetPage<MaintenanceRecord>> response = controller.seekMaintenanceRecords("", null, 20, true);
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(response));
+
+        JsonNode content = json.path("data").path("content");
+        assertThat(content).hasSize(1);
+        assertThat(content.get(0).path("id").asLong()).isEqualTo(5L);
+        assertThat(content.get(0).has("device")).isFalse();
+        assertThat(json.path("data").path("total").asLong()).isEqualTo(1L);
+    }
+
+    private static WorkOrder workOrder(Long id, String orderNo) {
+        WorkOrder workOrder = new WorkOrder();
+        workOrder.setId(id);
+        workOrder.setOrderNo(orderNo);
+        workOrder.setDeviceId(1L);
+        workOrder.setDeviceCode("D001");
+        workOrder.setPlannedQuantity(100);
+        workOrder.setActualQuantity(0);
+        workOrder.setStatus("pending");
+        workOrder.setCreatedTime(CREATED_TIME.plusMinutes(id));
+        workOrder.setUpdatedTime(CREATED_TIME.plusMinutes(id));
+        workOrder.setDevice(uninitializedDevice());
+        return workOrder;
+    }
+
+    /**
+     * 模拟事务外未初始化的Hibernate代理：读取任何属性都会失败
+     */
+    private static Device uninitializedDevice() {
+        return new Device() {
+            @Override
+            public Long getId() {
+                throw new LazyInitializationException("could not initialize proxy - no Session");
+            }
+
+            @Override
+            public String getDeviceCode() {
+                throw new LazyInitializationException("could not initialize proxy - no Session");
+            }
+
+            @Override
+            public String getStatus() {
+                throw new LazyInitializationException("could not initialize proxy - no Session");
+            }
+        };
+    }
+}
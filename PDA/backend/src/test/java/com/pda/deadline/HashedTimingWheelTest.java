@@ -0,0 +1,117 @@
+package com.pda.deadline;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 哈希时间轮测试（使用可控时钟）
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+class HashedTimingWheelTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private final HashedTimingWheel<String> wheel = new HashedTimingWheel<>(100, 4, nanos::get);
+
+    @Test
+    void expiresAfterDeadlineTickHasPassed() {
+        wheel.schedule("a", 250);
+
+        advanceTo(200);
+        assertThat(wheel.advance()).isEmpty();
+        advanceTo(299);
+        assertThat(wheel.advance()).isEmpty();
+        advanceTo(300);
+        assertThat(wheel.advance()).containsExactly("a");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void nonPositiveDelayExpiresOnNextTick() {
+        wheel.schedule("a", 0);
+        wheel.schedule("b", -50);
+
+        assertThat(wheel.advance()).isEmpty();
+        advanceTo(100);
+        assertThat(wheel.advance()).containsExactlyInAnyOrder("a", "b");
+    }
+
+    @Test
+    void waitsRemainingRoundsBeyondOneRevolution() {
+        // 4个槽位，刻度100毫秒：1000毫秒后到期的定时项落在槽位2，需要先经过两圈
+        wheel.schedule("late", 1000);
+        wheel.schedule("early", 200);
+
+        advanceTo(300);
+        assertThat(wheel.advance()).containsExactly("early");
+        advanceTo(1000);
+        assertThat(wheel.advance()).isEmpty();
+        assertThat(wheel.size()).isEqualTo(1);
+        advanceTo(1100);
+        assertThat(wheel.advance()).containsExactly("late");
+    }
+
+    @Test
+    void cancelRemovesPendingTimeoutOnce() {
+        HashedTimingWheel.Timeout<String> cancelled = wheel.schedule("cancelled", 100);
+        wheel.schedule("kept", 100);
+
+        assertThat(wheel.cancel(cancelled)).isTrue();
+        assertThat(wheel.cancel(cancelled)).isFalse();
+        assertThat(wheel.size()).isEqualTo(1);
+
+        advanceTo(200);
+        assertThat(wheel.advance()).containsExactly("kept");
+    }
+
+    @Test
+    void cancelAfterExpiryReturnsFalse() {
+        HashedTimingWheel.Timeout<String> timeout = wheel.schedule("a", 50);
+        advanceTo(100);
+        assertThat(wheel.advance()).containsExactly("a");
+
+        assertThat(wheel.cancel(timeout)).isFalse();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void laggingAdvanceCatchesUpInDeadlineOrder() {
+        wheel.schedule("third", 2500);
+        wheel.schedule("first", 150);
+        wheel.schedule("second", 900);
+
+        advanceTo(10_000);
+        assertThat(wheel.advance()).containsExactly("first", "second", "third");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void scheduleWhileAdvanceLagsUsesElapsedTime() {
+        // 时间已过去但尚未推进：新定时项按当前时间计算到期，不会因为落后的刻度提前或多等一圈
+        advanceTo(950);
+        wheel.schedule("a", 100);
+
+        advanceTo(1000);
+        assertThat(wheel.advance()).isEmpty();
+        advanceTo(1100);
+        assertThat(wheel.advance()).containsExactly("a");
+    }
+
+    @Test
+    void rejectsNonPositiveTick() {
+        assertThatThrownBy(() -> new HashedTimingWheel<String>(0, 4))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void advanceTo(long millis) {
+        nanos.set(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
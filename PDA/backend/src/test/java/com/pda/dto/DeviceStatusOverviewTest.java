@@ -0,0 +1,69 @@
+package com.pda.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 设备状态总览行转换测试
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+class DeviceStatusOverviewTest {
+
+    @Test
+    void keepsMaintenanceDetailsWhenReportTimeIsNull() {
+        DeviceStatusOverview row = device("maintenance");
+        row.setMaintenanceRecordId(9L);
+        row.setMaintenanceDescription("主轴异响");
+        row.setMaintainer("李四");
+
+        Map<String, Object> overview = row.toMap();
+
+        assertThat(overview).containsEntry("maintenanceDescription", "主轴异响")
+                .containsEntry("maintainer", "李四")
+                .containsKey("reportTime");
+        assertThat(overview.get("reportTime")).isNull();
+    }
+
+    @Test
+    void omitsMaintenanceDetailsWithoutJoinedRecord() {
+        Map<String, Object> overview = device("maintenance").toMap();
+
+        assertThat(overview).doesNotContainKeys("maintenanceDescription", "reportTime", "maintainer");
+    }
+
+    @Test
+    void includesWorkOrderDetailsWhenJoined() {
+        DeviceStatusOverview row = device("working");
+        LocalDateTime startTime = LocalDateTime.of(2025, 1, 8, 8, 0);
+        row.setWorkOrderCode("WO20250108-001");
+        row.setPlannedQuantity(100);
+        row.setActualQuantity(40);
+        row.setStartTime(startTime);
+
+        Map<String, Object> overview = row.toMap();
+
+        assertThat(overview).containsEntry("workOrderCode", "WO20250108-001")
+                .containsEntry("plannedQuantity", 100)
+                .containsEntry("actualQuantity", 40)
+                .containsEntry("startTime", startTime)
+                .doesNotContainKeys("maintenanceDescription", "maintainer");
+    }
+
+    private static DeviceStatusOverview device(String status) {
+        DeviceStatusOverview row = new DeviceStatusOverview();
+        row.setId(1L);
+        row.setDeviceCode("D001");
+        row.setDeviceName("冲压机1号");
+        row.setDeviceType("冲压机");
+        row.setStatus(status);
+        row.setPlcAddress("D800");
+        return row;
+    }
+}
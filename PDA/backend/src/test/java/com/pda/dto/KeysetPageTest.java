@@ -0,0 +1,118 @@
+package com.pda.dto;
+
+import com.pda.dto.KeysetPage.Cursor;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 游标分页测试
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+class KeysetPageTest {
+
+    @Test
+    void dateTimeCursorRoundTrips() {
+        LocalDateTime key = LocalDateTime.of(2025, 1, 8, 9, 30, 15, 123_456_789);
+
+        Cursor cursor = Cursor.decode(Cursor.of(key, 42L).encode());
+
+        assertThat(cursor.getDateTime()).isEqualTo(key);
+        assertThat(cursor.getId()).isEqualTo(42L);
+    }
+
+    @Test
+    void dateCursorRoundTrips() {
+        LocalDate key = LocalDate.of(2025, 1, 8);
+
+        Cursor cursor = Cursor.decode(Cursor.of(key, 7L).encode());
+
+        assertThat(cursor.getDate()).isEqualTo(key);
+        assertThat(cursor.getId()).isEqualTo(7L);
+    }
+
+    @Test
+    void encodedTokenIsUrlSafe() {
+        String token = Cursor.of(LocalDateTime.of(2025, 12, 31, 23, 59, 59), Long.MAX_VALUE).encode();
+
+        assertThat(token).doesNotContain("+", "/", "=");
+    }
+
+    @Test
+    void emptyTokenMeansFirstPage() {
+        assertThat(Cursor.decode(null)).isNull();
+        assertThat(Cursor.decode("")).isNull();
+        assertThat(Cursor.decode("  ")).isNull();
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertThatThrownBy(() -> Cursor.decode("not base64!")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Cursor.decode(token("2025-01-08T09:30"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Cursor.decode(token(",42"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Cursor.decode(token("2025-01-08T09:30,abc"))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsKeyOfWrongType() {
+        Cursor cursor = Cursor.decode(token("2025-01-08T09:30,42"));
+
+        assertThatThrownBy(cursor::getDate).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Cursor.decode(token("2025-01-08,42")).getDateTime())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsNullKey() {
+        assertThatThrownBy(() -> Cursor.of((LocalDateTime) null, 1L)).isInstanceOf(NullPointerException.class);
+    }
+
+    @Test
+    void lastPageHasNoNextToken() {
+        KeysetPage<Long> page = KeysetPage.of(Arrays.asList(3L, 2L), 2, KeysetPageTest::cursorOf, 2L);
+
+        assertThat(page.getContent()).containsExactly(3L, 2L);
+        assertThat(page.isHasNext()).isFalse();
+        assertThat(page.getNextToken()).isNull();
+        assertThat(page.getTotal()).isEqualTo(2L);
+    }
+
+    @Test
+    void probedExtraRowYieldsNextTokenFromLastReturnedRow() {
+        List<Long> rows = Arrays.asList(5L, 4L, 3L);
+
+        KeysetPage<Long> page = KeysetPage.of(rows, 2, KeysetPageTest::cursorOf, null);
+
+        assertThat(page.getContent()).containsExactly(5L, 4L);
+        assertThat(page.isHasNext()).isTrue();
+        assertThat(Cursor.decode(page.getNextToken()).getId()).isEqualTo(4L);
+        assertThat(page.getTotal()).isNull();
+    }
+
+    @Test
+    void limitsPageSize() {
+        assertThat(KeysetPage.limit(0)).isEqualTo(KeysetPage.DEFAULT_SIZE);
+        assertThat(KeysetPage.limit(-1)).isEqualTo(KeysetPage.DEFAULT_SIZE);
+        assertThat(KeysetPage.limit(1000)).isEqualTo(KeysetPage.MAX_SIZE);
+        assertThat(KeysetPage.probe(10).getPageSize()).isEqualTo(11);
+    }
+
+    private static Cursor cursorOf(Long id) {
+        return Cursor.of(LocalDateTime.of(2025, 1, 8, 0, 0).plusMinutes(id), id);
+    }
+
+    private static String token(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,129 @@
+package com.pda.plc;
+
+import com.digitalpetri.modbus.codec.Modbus;
+import com.pda.entity.PlcConfig;
+import com.pda.plc.simulator.ModbusPlcSimulator;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 通过与生产采集相同的PLC会话读取进程内模拟PLC
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+class ModbusPlcSimulatorTest {
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private ScheduledExecutorService retryScheduler;
+
+    private ModbusPlcSimulator simulator;
+
+    private PlcConnection connection;
+
+    @BeforeEach
+    void setUp() {
+        retryScheduler = Executors.newSingleThreadScheduledExecutor();
+        simulator = new ModbusPlcSimulator("plc-sim-test", 0);
+        simulator.setLatency(0, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (connection != null) {
+            connection.close();
+        }
+        simulator.close();
+        retryScheduler.shutdownNow();
+    }
+
+    @AfterAll
+    static void releaseModbus() {
+        Modbus.releaseSharedResources();
+    }
+
+    @Test
+    void readsHoldingRegisters() throws Exception {
+        simulator.setRegister(800, 1234);
+        simulator.setRegister(801, 0xFFFF);
+        simulator.start(1000);
+
+        int[] registers = connect(new PlcProperties()).readHoldingRegisters(800, 2).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertThat(registers).containsExactly(1234, 0xFFFF);
+        assertThat(simulator.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void counterWrapsAt16Bits() throws Exception {
+        simulator.setRegister(802, 0xFFFE);
+        simulator.addCounter(802, 1);
+        simulator.start(20);
+        PlcConnection plc = connect(new PlcProperties());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        int value = plc.readHoldingRegisters(802, 1).get(TIMEOUT_SECONDS, TimeUnit.SECONDS)[0];
+        while (value >= 0xFFFE && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            value = plc.readHoldingRegisters(802, 1).get(TIMEOUT_SECONDS, TimeUnit.SECONDS)[0];
+        }
+
+        assertThat(value).isBetween(0, 0xFFFD);
+    }
+
+    @Test
+    void pipelinesReadsWithinInFlightWindow() throws Exception {
+        long latency = 50;
+        int reads = 8;
+        simulator.setLatency(latency, 0);
+        simulator.start(1000);
+        PlcProperties properties = new PlcProperties();
+        properties.setMaxInFlight(4);
+        PlcConnection plc = connect(properties);
+        plc.readHoldingRegisters(800, 1).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        long startTime = System.nanoTime();
+        List<CompletableFuture<int[]>> futures = new ArrayList<>();
+        for (int i = 0; i < reads; i++) {
+            futures.add(plc.readHoldingRegisters(800 + i, 1));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+        // 串行读取至少需要 reads * latency，窗口为4时两轮即可完成
+        assertThat(elapsedMillis).isLessThan(reads * latency);
+        assertThat(simulator.getRequestCount()).isEqualTo(reads + 1);
+    }
+
+    @Test
+    void illegalAddressFailsRead() throws Exception {
+        simulator.start(1000);
+
+        CompletableFuture<int[]> read = connect(new PlcProperties()).readHoldingRegisters(65535, 2);
+
+        assertThatThrownBy(() -> read.get(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+    }
+
+    private PlcConnection connect(PlcProperties properties) {
+        PlcConfig config = PlcConfig.createDefaultConfig();
+        config.setId(1L);
+        config.setConfigName(simulator.getName());
+        config.setPlcIp("127.0.0.1");
+        config.setPlcPort(simulator.getPort());
+        config.setRetryCount(0);
+        config.setRetryInterval(10);
+        connection = ModbusConnectionPool.openConnection(config, properties, retryScheduler);
+        return connection;
+    }
+}
@@ -0,0 +1,178 @@
+package com.pda.plc;
+
+import com.digitalpetri.modbus.codec.Modbus;
+import com.pda.entity.DevicePointMapping.PointType;
+import com.pda.entity.PlcConfig;
+import com.pda.plc.simulator.ModbusPlcSimulator;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * PLC采集压测工具
+ * 启动 1~20 个进程内模拟PLC，使用与生产采集相同的读取计划和PLC会话连续扫描，
+ * 输出每秒读取点位数、每秒Modbus请求数、扫描耗时P50/P99和CPU占用，用于在开发机上验证采集扩展能力
+ *
+ * 运行方式（测试代码，不打包到应用中；参数均可省略）：
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp "target/test-classes:target/classes:$(cat target/cp.txt)" com.pda.plc.PlcLoadHarness \
+ *      plcs=10 points=64 spacing=2 scans=500 latency=5 jitter=2 drop-rate=0 max-in-flight=4
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Slf4j
+public final class PlcLoadHarness {
+
+    private static final int FIRST_REGISTER = 800;
+
+    private static final int WARMUP_SCANS = 20;
+
+    private PlcLoadHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int plcCount = Math.max(1, Math.min(20, intOption(options, "plcs", 10)));
+        int pointsPerPlc = intOption(options, "points", 64);
+        int spacing = intOption(options, "spacing", 2);
+        int scans = intOption(options, "scans", 500);
+        long latency = intOption(options, "latency", 5);
+        long jitter = intOption(options, "jitter", 2);
+        double dropRate = Double.parseDouble(options.getOrDefault("drop-rate", "0"));
+
+        PlcProperties properties = new PlcProperties();
+        properties.setMaxInFlight(intOption(options, "max-in-flight", properties.getMaxInFlight()));
+        properties.setMaxQueuedRequests(Math.max(properties.getMaxQueuedRequests(), pointsPerPlc));
+
+        List<ModbusPlcSimulator> simulators = new ArrayList<>();
+        Map<Long, PlcConnection> connections = new HashMap<>();
+        ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            List<PlcPoint> points = new ArrayList<>();
+            for (int plc = 0; plc < plcCount; plc++) {
+                ModbusPlcSimulator simulator = new ModbusPlcSimulator("plc-sim-" + (plc + 1), 0);
+                simulator.setLatency(latency, jitter);
+                simulator.setDropRate(dropRate);
+                for (int i = 0; i < pointsPerPlc; i++) {
+                    simulator.addCounter(FIRST_REGISTER + i * spacing, 1);
+                }
+                simulator.start(100);
+                simulators.add(simulator);
+
+                long plcConfigId = plc + 1L;
+                PlcConfig config = PlcConfig.createDefaultConfig();
+                config.setId(plcConfigId);
+                config.setConfigName(simulator.getName());
+                config.setPlcIp("127.0.0.1");
+                config.setPlcPort(simulator.getPort());
+                config.setRetryCount(1);
+                config.setRetryInterval(50);
+                connections.put(plcConfigId, ModbusConnectionPool.openConnection(config, properties, retryScheduler));
+
+                for (int i = 0; i < pointsPerPlc; i++) {
+                    long deviceId = plc * (long) pointsPerPlc + i + 1;
+                    points.add(new PlcPoint(points.size(), null, deviceId, "SIM" + deviceId, PointType.DATA,
+                            FIRST_REGISTER + i * spacing, 1, plcConfigId));
+                }
+            }
+
+            List<ReadBlock> blocks = PlcReadPlanner.plan(points, properties.getReadMaxRegisters(),
+                    properties.getReadGapTolerance());
+            log.info("压测开始 - PLC: {}，点位: {}，读取请求/扫描: {}，延迟: {}±{}ms，断开概率: {}",
+                    plcCount, points.size(), blocks.size(), latency, jitter, dropRate);
+
+            for (int i = 0; i < WARMUP_SCANS; i++) {
+                scan(blocks, connections);
+            }
+
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            com.sun.management.OperatingSystemMXBean os =
+                    (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+            long[] latencies = new long[scans];
+            long pointsRead = 0;
+            long failedScans = 0;
+            long cpuStart = os.getProcessCpuTime();
+            long startTime = System.nanoTime();
+            for (int i = 0; i < scans; i++) {
+                long scanStart = System.nanoTime();
+                int read = scan(blocks, connections);
+                latencies[i] = System.nanoTime() - scanStart;
+                pointsRead += read;
+                if (read < points.size()) {
+                    failedScans++;
+                }
+            }
+            long elapsed = System.nanoTime() - startTime;
+            long cpuTime = os.getProcessCpuTime() - cpuStart;
+
+            Arrays.sort(latencies);
+            double seconds = elapsed / 1e9;
+            log.info("压测完成 - 扫描: {}，耗时: {}s，不完整扫描: {}", scans, String.format("%.2f", seconds), failedScans);
+            log.info("吞吐 - 点位/秒: {}，Modbus请求/秒: {}", String.format("%.0f", pointsRead / seconds),
+                    String.format("%.0f", (double) blocks.size() * scans / seconds));
+            log.info("扫描耗时 - P50: {}ms，P99: {}ms，最大: {}ms", millis(percentile(latencies, 50)),
+                    millis(percentile(latencies, 99)), millis(latencies[latencies.length - 1]));
+            log.info("CPU - 平均占用: {}%（{}核），线程数: {}",
+                    String.format("%.1f", 100.0 * cpuTime / elapsed / os.getAvailableProcessors()),
+                    os.getAvailableProcessors(), threads.getThreadCount());
+            simulators.forEach(simulator -> log.info("{} - 请求: {}，模拟断开: {}", simulator.getName(),
+                    simulator.getRequestCount(), simulator.getDroppedConnections()));
+        } finally {
+            connections.values().forEach(PlcConnection::close);
+            simulators.forEach(ModbusPlcSimulator::close);
+            retryScheduler.shutdownNow();
+            Modbus.releaseSharedResources();
+        }
+    }
+
+    /**
+     * 执行一次扫描：同时发出全部读取请求并等待完成，返回读取成功的点位数量
+     */
+    private static int scan(List<ReadBlock> blocks, Map<Long, PlcConnection> connections) throws InterruptedException {
+        CompletableFuture<?>[] reads = new CompletableFuture[blocks.size()];
+        int[] pointCounts = new int[blocks.size()];
+        for (int i = 0; i < blocks.size(); i++) {
+            ReadBlock block = blocks.get(i);
+            int index = i;
+            reads[i] = connections.get(block.getPlcConfigId())
+                    .readHoldingRegisters(block.getStartRegister(), block.getRegisterCount())
+                    .thenAccept(registers -> pointCounts[index] = block.getPoints().size());
+        }
+        try {
+            CompletableFuture.allOf(reads).get(10, TimeUnit.SECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            // 失败的读取不计入成功点位
+        }
+        return Arrays.stream(pointCounts).sum();
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f", nanos / 1e6);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator > 0) {
+                options.put(arg.substring(0, separator).replaceFirst("^--", ""), arg.substring(separator + 1));
+            }
+        }
+        return options;
+    }
+
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        String value = options.get(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+}
@@ -0,0 +1,84 @@
+package com.pda.plc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * PLC点位实时值表测试
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+class PlcPointValueTableTest {
+
+    private final PlcPointValueTable table = new PlcPointValueTable(new PlcProperties());
+
+    @Test
+    void readReturnsFalseBeforeFirstUpdate() {
+        PointValue target = new PointValue();
+
+        assertThat(table.read(0, target)).isFalse();
+        assertThat(table.getTimestamp(0)).isZero();
+    }
+
+    @Test
+    void markBadKeepsLastValue() {
+        long now = System.currentTimeMillis();
+        table.update(3, 42, now);
+        table.markBad(3, now + 10);
+
+        PointValue target = new PointValue();
+        assertThat(table.read(3, target)).isTrue();
+        assertThat(target.getValue()).isEqualTo(42);
+        assertThat(target.getQuality()).isEqualTo(PointValue.QUALITY_BAD);
+        assertThat(target.getTimestamp()).isEqualTo(now + 10);
+    }
+
+    @Test
+    void concurrentWritersNeverProduceTornSnapshot() throws Exception {
+        long base = System.currentTimeMillis();
+        int writers = 3;
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch started = new CountDownLatch(writers);
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 1);
+        try {
+            for (int w = 0; w < writers; w++) {
+                int offset = w * 1_000_000;
+                executor.execute(() -> {
+                    started.countDown();
+                    for (int i = 0; running.get(); i = (i + 1) % 1_000_000) {
+                        // 值与时间戳一一对应，快照撕裂时两者不再匹配
+                        table.update(0, offset + i, base + offset + i);
+                    }
+                });
+            }
+            started.await();
+
+            Future<Integer> reader = executor.submit(() -> {
+                PointValue target = new PointValue();
+                int consistent = 0;
+                for (int i = 0; i < 200_000; i++) {
+                    if (table.read(0, target)) {
+                        assertThat(target.getTimestamp() - base).isEqualTo(target.getValue());
+                        consistent++;
+                    }
+                }
+                return consistent;
+            });
+            assertThat(reader.get(30, TimeUnit.SECONDS)).isPositive();
+        } finally {
+            running.set(false);
+            executor.shutdown();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+}
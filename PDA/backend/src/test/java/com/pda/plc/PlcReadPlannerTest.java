@@ -0,0 +1,128 @@
+package com.pda.plc;
+
+import com.pda.entity.DevicePointMapping.PointType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * PLC读取计划生成器测试
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+class PlcReadPlannerTest {
+
+    @Test
+    void mergesPointsWithinGapTolerance() {
+        List<PlcPoint> points = Arrays.asList(point(0, 800, 1), point(1, 803, 1), point(2, 810, 1));
+
+        List<ReadBlock> blocks = PlcReadPlanner.plan(points, 125, 2);
+
+        assertThat(blocks).hasSize(2);
+        assertThat(blocks.get(0).getStartRegister()).isEqualTo(800);
+        assertThat(blocks.get(0).getRegisterCount()).isEqualTo(4);
+        assertThat(blocks.get(0).getPoints()).extracting(PlcPoint::getIndex).containsExactly(0, 1);
+        assertThat(blocks.get(1).getStartRegister()).isEqualTo(810);
+        assertThat(blocks.get(1).getRegisterCount()).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotMergeBeyondGapTolerance() {
+        List<PlcPoint> points = Arrays.asList(point(0, 800, 1), point(1, 803, 1));
+
+        assertThat(PlcReadPlanner.plan(points, 125, 1)).hasSize(2);
+        assertThat(PlcReadPlanner.plan(points, 125, 0)).hasSize(2);
+    }
+
+    @Test
+    void mergesAdjacentAndOverlappingPointsWithZeroGap() {
+        List<PlcPoint> points = Arrays.asList(point(0, 800, 2), point(1, 800, 1), point(2, 802, 1));
+
+        List<ReadBlock> blocks = PlcReadPlanner.plan(points, 125, 0);
+
+        assertThat(blocks).hasSize(1);
+        assertThat(blocks.get(0).getStartRegister()).isEqualTo(800);
+        assertThat(blocks.get(0).getRegisterCount()).isEqualTo(3);
+        assertThat(blocks.get(0).getPoints()).hasSize(3);
+    }
+
+    @Test
+    void splitsAtMaxRegisters() {
+        List<PlcPoint> points = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            points.add(point(i, 100 + i, 1));
+        }
+
+        List<ReadBlock> blocks = PlcReadPlanner.plan(points, 4, 0);
+
+        assertThat(blocks).extracting(ReadBlock::getStartRegister).containsExactly(100, 104, 108);
+        assertThat(blocks).extracting(ReadBlock::getRegisterCount).containsExactly(4, 4, 2);
+    }
+
+    @Test
+    void clampsMaxRegistersToModbusLimit() {
+        List<PlcPoint> points = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            points.add(point(i, i, 1));
+        }
+
+        List<ReadBlock> blocks = PlcReadPlanner.plan(points, 1000, 0);
+
+        assertThat(blocks).extracting(ReadBlock::getRegisterCount)
+                .containsExactly(PlcReadPlanner.MODBUS_MAX_REGISTERS, 200 - PlcReadPlanner.MODBUS_MAX_REGISTERS);
+    }
+
+    @Test
+    void keepsDoubleWordPointStraddlingBlockBoundaryWhole() {
+        List<PlcPoint> points = Arrays.asList(point(0, 0, 1), point(1, 1, 1), point(2, 2, 1), point(3, 3, 2));
+
+        List<ReadBlock> blocks = PlcReadPlanner.plan(points, 4, 0);
+
+        assertThat(blocks).hasSize(2);
+        assertThat(blocks.get(0).getStartRegister()).isZero();
+        assertThat(blocks.get(0).getRegisterCount()).isEqualTo(3);
+        assertThat(blocks.get(1).getStartRegister()).isEqualTo(3);
+        assertThat(blocks.get(1).getRegisterCount()).isEqualTo(2);
+        for (ReadBlock block : blocks) {
+            for (PlcPoint point : block.getPoints()) {
+                assertThat(block.offsetOf(point)).isNotNegative();
+                assertThat(block.offsetOf(point) + point.getRegisterCount()).isLessThanOrEqualTo(block.getRegisterCount());
+            }
+        }
+    }
+
+    @Test
+    void decodesDoubleWordLowWordFirst() {
+        PlcPoint point = point(0, 10, 2);
+        int[] registers = {0x1234, 0x0001};
+
+        assertThat(point.decode(registers, 0)).isEqualTo(0x00011234);
+    }
+
+    @Test
+    void neverMergesPointsOfDifferentPlcs() {
+        List<PlcPoint> points = Arrays.asList(point(0, 800, 1, 1L), point(1, 801, 1, 2L), point(2, 801, 1, null));
+
+        List<ReadBlock> blocks = PlcReadPlanner.plan(points, 125, 10);
+
+        assertThat(blocks).hasSize(3);
+        for (ReadBlock block : blocks) {
+            assertThat(block.getPoints()).allMatch(point -> Objects.equals(point.getPlcConfigId(), block.getPlcConfigId()));
+        }
+    }
+
+    private static PlcPoint point(int index, int register, int registerCount) {
+        return point(index, register, registerCount, 1L);
+    }
+
+    private static PlcPoint point(int index, int register, int registerCount, Long plcConfigId) {
+        return new PlcPoint(index, null, (long) index, "DEV" + index, PointType.DATA, register, registerCount, plcConfigId);
+    }
+}
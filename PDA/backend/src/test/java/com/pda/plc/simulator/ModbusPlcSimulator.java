@@ -0,0 +1,275 @@
+package com.pda.plc.simulator;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 进程内Modbus TCP PLC模拟器
+ * 支持功能码03（读保持寄存器），可配置寄存器值、响应延迟与抖动、随机断开连接比例，
+ * 以及按固定周期递增的16位计数寄存器，用于在没有现场PLC的开发环境验证采集和压测
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Slf4j
+public class ModbusPlcSimulator implements Closeable {
+
+    private static final int FC_READ_HOLDING_REGISTERS = 0x03;
+
+    private static final int EXCEPTION_ILLEGAL_FUNCTION = 0x01;
+
+    private static final int EXCEPTION_ILLEGAL_DATA_ADDRESS = 0x02;
+
+    private static final int MAX_READ_REGISTERS = 125;
+
+    private final String name;
+
+    private final int requestedPort;
+
+    private final AtomicIntegerArray registers = new AtomicIntegerArray(65536);
+
+    /**
+     * 计数寄存器到每个周期的递增量
+     */
+    private final Map<Integer, Integer> counters = new ConcurrentHashMap<>();
+
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong requestCount = new AtomicLong();
+
+    private final AtomicLong droppedConnections = new AtomicLong();
+
+    private volatile long latencyMillis;
+
+    private volatile long jitterMillis;
+
+    private volatile double dropRate;
+
+    private ServerSocket serverSocket;
+
+    private ExecutorService connectionExecutor;
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param name 模拟器名称（用于日志和线程名）
+     * @param port 监听端口，0表示使用随机空闲端口
+     */
+    public ModbusPlcSimulator(String name, int port) {
+        this.name = name;
+        this.requestedPort = port;
+    }
+
+    /**
+     * 启动监听，计数寄存器每 counterIntervalMillis 毫秒递增一次
+     */
+    public synchronized void start(long counterIntervalMillis) throws IOException {
+        serverSocket = new ServerSocket(requestedPort, 50, InetAddress.getLoopbackAddress());
+        connectionExecutor = Executors.newCachedThreadPool(daemonThreads(name + "-conn"));
+        scheduler = Executors.newScheduledThreadPool(2, daemonThreads(name + "-timer"));
+        scheduler.scheduleAtFixedRate(this::incrementCounters, counterIntervalMillis, counterIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        connectionExecutor.execute(this::acceptLoop);
+        log.info("PLC模拟器 {} 已启动，端口: {}", name, getPort());
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                clients.add(socket);
+                connectionExecutor.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    log.warn("PLC模拟器 {} 接受连接失败: {}", name, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * 处理一个连接上的请求；响应按延迟异步发送，同一连接上可以有多个未完成的事务
+     */
+    private void serve(Socket socket) {
+        try (Socket client = socket) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(client.getInputStream()));
+            OutputStream out = new BufferedOutputStream(client.getOutputStream());
+            while (true) {
+                int transactionId = in.readUnsignedShort();
+                int protocolId = in.readUnsignedShort();
+                int length = in.readUnsignedShort();
+                int unitId = in.readUnsignedByte();
+                if (length < 2) {
+                    log.warn("PLC模拟器 {} 收到无效报文，断开连接", name);
+                    return;
+                }
+                byte[] pdu = new byte[length - 1];
+                in.readFully(pdu);
+                requestCount.incrementAndGet();
+
+                if (dropRate > 0 && ThreadLocalRandom.current().nextDouble() < dropRate) {
+                    droppedConnections.incrementAndGet();
+                    log.debug("PLC模拟器 {} 模拟断开连接", name);
+                    return;
+                }
+                byte[] response = frame(transactionId, protocolId, unitId, handle(pdu));
+                long delay = latencyMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0);
+                scheduler.schedule(() -> send(out, response), delay, TimeUnit.MILLISECONDS);
+            }
+        } catch (EOFException | SocketException e) {
+            // 客户端断开
+        } catch (IOException e) {
+            log.warn("PLC模拟器 {} 连接异常: {}", name, e.getMessage());
+        } finally {
+            clients.remove(socket);
+        }
+    }
+
+    private byte[] handle(byte[] pdu) {
+        int functionCode = pdu[0] & 0xFF;
+        if (functionCode != FC_READ_HOLDING_REGISTERS || pdu.length < 5) {
+            return new byte[]{(byte) (functionCode | 0x80), EXCEPTION_ILLEGAL_FUNCTION};
+        }
+        int address = ((pdu[1] & 0xFF) << 8) | (pdu[2] & 0xFF);
+        int quantity = ((pdu[3] & 0xFF) << 8) | (pdu[4] & 0xFF);
+        if (quantity < 1 || quantity > MAX_READ_REGISTERS || address + quantity > registers.length()) {
+            return new byte[]{(byte) (functionCode | 0x80), EXCEPTION_ILLEGAL_DATA_ADDRESS};
+        }
+        byte[] response = new byte[2 + quantity * 2];
+        response[0] = (byte) functionCode;
+        response[1] = (byte) (quantity * 2);
+        for (int i = 0; i < quantity; i++) {
+            int value = registers.get(address + i);
+            response[2 + i * 2] = (byte) (value >> 8);
+            response[3 + i * 2] = (byte) value;
+        }
+        return response;
+    }
+
+    private static byte[] frame(int transactionId, int protocolId, int unitId, byte[] pdu) {
+        byte[] frame = new byte[7 + pdu.length];
+        frame[0] = (byte) (transactionId >> 8);
+        frame[1] = (byte) transactionId;
+        frame[2] = (byte) (protocolId >> 8);
+        frame[3] = (byte) protocolId;
+        frame[4] = (byte) ((pdu.length + 1) >> 8);
+        frame[5] = (byte) (pdu.length + 1);
+        frame[6] = (byte) unitId;
+        System.arraycopy(pdu, 0, frame, 7, pdu.length);
+        return frame;
+    }
+
+    private static void send(OutputStream out, byte[] response) {
+        synchronized (out) {
+            try {
+                out.write(response);
+                out.flush();
+            } catch (IOException e) {
+                // 连接已断开，丢弃响应
+            }
+        }
+    }
+
+    private void incrementCounters() {
+        counters.forEach((register, step) ->
+                registers.getAndUpdate(register, value -> (value + step) & 0xFFFF));
+    }
+
+    /**
+     * 设置寄存器值（16位）
+     */
+    public void setRegister(int register, int value) {
+        registers.set(register, value & 0xFFFF);
+    }
+
+    /**
+     * 获取寄存器值
+     */
+    public int getRegister(int register) {
+        return registers.get(register);
+    }
+
+    /**
+     * 添加计数寄存器，每个计数周期递增 step（超过65535回绕到0）
+     */
+    public void addCounter(int register, int step) {
+        counters.put(register, step);
+    }
+
+    /**
+     * 设置响应延迟和抖动（毫秒）
+     */
+    public void setLatency(long latencyMillis, long jitterMillis) {
+        this.latencyMillis = Math.max(0, latencyMillis);
+        this.jitterMillis = Math.max(0, jitterMillis);
+    }
+
+    /**
+     * 设置每个请求触发断开连接的概率（0~1）
+     */
+    public void setDropRate(double dropRate) {
+        this.dropRate = Math.max(0, Math.min(1, dropRate));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getPort() {
+        return serverSocket != null ? serverSocket.getLocalPort() : requestedPort;
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public long getDroppedConnections() {
+        return droppedConnections.get();
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            log.debug("关闭PLC模拟器 {} 监听失败: {}", name, e.getMessage());
+        }
+        for (Socket client : clients) {
+            try {
+                client.close();
+            } catch (IOException e) {
+                // 忽略
+            }
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (connectionExecutor != null) {
+            connectionExecutor.shutdownNow();
+        }
+        log.info("PLC模拟器 {} 已停止，处理请求: {}，模拟断开: {}", name, requestCount.get(), droppedConnections.get());
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicLong sequence = new AtomicLong();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,70 @@
+package com.pda.plc.simulator;
+
+import com.pda.plc.PlcAddress;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * PLC模拟器启动器
+ * 集成测试中启用 app.plc.simulator.enabled 时在应用内启动模拟PLC，采集引擎按 app.plc.default-ip/default-port
+ * 或PLC配置连接到模拟器，无需现场PLC即可运行完整的采集链路
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.plc.simulator", name = "enabled", havingValue = "true")
+public class PlcSimulatorLauncher {
+
+    private final PlcSimulatorProperties config;
+
+    private final List<ModbusPlcSimulator> simulators = new ArrayList<>();
+
+    @PostConstruct
+    public void start() {
+        for (int i = 0; i < config.getCount(); i++) {
+            ModbusPlcSimulator simulator = new ModbusPlcSimulator("plc-sim-" + (i + 1), config.getBasePort() + i);
+            simulator.setLatency(config.getLatency(), config.getJitter());
+            simulator.setDropRate(config.getDropRate());
+            for (String address : config.getCounterAddresses()) {
+                if (PlcAddress.isRegisterAddress(address)) {
+                    simulator.addCounter(PlcAddress.parseRegister(address), config.getCounterStep());
+                }
+            }
+            try {
+                simulator.start(config.getCounterInterval());
+            } catch (IOException e) {
+                stop();
+                throw new UncheckedIOException("启动PLC模拟器失败，端口: " + simulator.getPort(), e);
+            }
+            simulators.add(simulator);
+        }
+        log.warn("已启动 {} 个PLC模拟器（端口 {} 起），PLC数据为模拟数据", simulators.size(), config.getBasePort());
+    }
+
+    /**
+     * 获取已启动的模拟器
+     */
+    public List<ModbusPlcSimulator> getSimulators() {
+        return Collections.unmodifiableList(simulators);
+    }
+
+    @PreDestroy
+    public void stop() {
+        simulators.forEach(ModbusPlcSimulator::close);
+        simulators.clear();
+    }
+}
@@ -0,0 +1,67 @@
+package com.pda.plc.simulator;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * PLC模拟器配置（对应 app.plc.simulator.*，只用于测试）
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.plc.simulator")
+public class PlcSimulatorProperties {
+
+    /**
+     * 是否启动进程内Modbus TCP PLC模拟器
+     */
+    private boolean enabled = false;
+
+    /**
+     * 模拟PLC数量
+     */
+    private int count = 1;
+
+    /**
+     * 第一个模拟PLC的端口，其余模拟PLC的端口依次递增
+     */
+    private int basePort = 15020;
+
+    /**
+     * 响应延迟（毫秒）
+     */
+    private long latency = 5;
+
+    /**
+     * 响应延迟抖动（毫秒）
+     */
+    private long jitter = 2;
+
+    /**
+     * 每个请求触发断开连接的概率（0~1）
+     */
+    private double dropRate = 0;
+
+    /**
+     * 计数寄存器递增周期（毫秒）
+     */
+    private long counterInterval = 1000;
+
+    /**
+     * 计数寄存器每个周期的递增量
+     */
+    private int counterStep = 1;
+
+    /**
+     * 计数寄存器地址
+     */
+    private List<String> counterAddresses = new ArrayList<>(Arrays.asList("D802", "D806", "D854", "D866"));
+}
@@ -0,0 +1,98 @@
+package com.pda.service.impl;
+
+import com.pda.dto.WorkOrderImportResult;
+import com.pda.entity.Device;
+import com.pda.entity.WorkOrder;
+import com.pda.repository.WorkOrderRepository;
+import com.pda.service.DeviceService;
+import com.pda.service.WorkOrderService;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 派工单导入设备状态校验测试
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+class WorkOrderImportDeviceStatusTest {
+
+    private final WorkOrderService workOrderService = mock(WorkOrderService.class);
+
+    private final DeviceService deviceService = mock(DeviceService.class);
+
+    private final WorkOrderBatchWriter workOrderBatchWriter = mock(WorkOrderBatchWriter.class);
+
+    private final WorkOrderImportServiceImpl importService = new WorkOrderImportServiceImpl(
+            workOrderService, deviceService, mock(WorkOrderRepository.class), workOrderBatchWriter);
+
+    @Test
+    void importsForIdleAndWorkingDevices() throws Exception {
+        device(1L, "D001", "idle");
+        device(2L, "D002", "working");
+        List<WorkOrder> inserted = captureInserts();
+
+        WorkOrderImportResult result = importCsv("设备编号,计划产量\nD001,100\nD002,50\n");
+
+        assertThat(result.getImportedRows()).isEqualTo(2);
+        assertThat(result.getErrors()).isEmpty();
+        assertThat(inserted).extracting(WorkOrder::getDeviceCode).containsExactly("D001", "D002");
+    }
+
+    @Test
+    void rejectsDevicesNotAvailableForProductionPerRow() throws Exception {
+        device(1L, "D001", "maintenance");
+        device(2L, "D002", "fault");
+        device(3L, "D003", null);
+
+        WorkOrderImportResult result = importCsv("设备编号,计划产量\nD001,100\nD002,100\nD003,100\nD404,100\n");
+
+        assertThat(result.getImportedRows()).isZero();
+        assertThat(result.getFailedRows()).isEqualTo(4);
+        assertThat(result.getErrors()).extracting(WorkOrderImportResult.RowError::getLine).containsExactly(2, 3, 4, 5);
+        assertThat(result.getErrors().get(0).getMessage()).contains("D001", "maintenance");
+        assertThat(result.getErrors().get(3).getMessage()).contains("设备不存在");
+        verify(workOrderBatchWriter, never()).insert(anyList());
+    }
+
+    private void device(Long id, String deviceCode, String status) {
+        Device device = new Device();
+        device.setId(id);
+        device.setDeviceCode(deviceCode);
+        device.setStatus(status);
+        when(deviceService.findByDeviceCode(deviceCode)).thenReturn(Optional.of(device));
+    }
+
+    private List<WorkOrder> captureInserts() {
+        List<WorkOrder> inserted = new ArrayList<>();
+        when(workOrderService.generateWorkOrderCodes(anyInt())).thenAnswer(invocation -> {
+            List<String> codes = new ArrayList<>();
+            for (int i = 0; i < (int) invocation.getArgument(0); i++) {
+                codes.add("WO20250108-" + (inserted.size() + i + 1));
+            }
+            return codes;
+        });
+        doAnswer(invocation -> inserted.addAll(invocation.getArgument(0)))
+                .when(workOrderBatchWriter).insert(anyList());
+        return inserted;
+    }
+
+    private WorkOrderImportResult importCsv(String content) throws Exception {
+        return importService.importCsv(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), "张三");
+    }
+}
@@ -0,0 +1,81 @@
+package com.pda.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import static com.pda.service.impl.WorkOrderImportServiceImpl.CREATED_BY;
+import static com.pda.service.impl.WorkOrderImportServiceImpl.DEVICE_CODE;
+import static com.pda.service.impl.WorkOrderImportServiceImpl.ORDER_NO;
+import static com.pda.service.impl.WorkOrderImportServiceImpl.PLANNED_QUANTITY;
+import static com.pda.service.impl.WorkOrderImportServiceImpl.parseHeader;
+import static com.pda.service.impl.WorkOrderImportServiceImpl.splitLine;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 派工单导入CSV行拆分和表头解析测试
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+class WorkOrderImportParsingTest {
+
+    @Test
+    void splitsPlainFields() {
+        assertThat(splitLine("WO20250108-001,D001,100,张三")).containsExactly("WO20250108-001", "D001", "100", "张三");
+    }
+
+    @Test
+    void keepsEmptyFields() {
+        assertThat(splitLine(",D001,,")).containsExactly("", "D001", "", "");
+        assertThat(splitLine("")).containsExactly("");
+    }
+
+    @Test
+    void unquotesFieldsContainingSeparatorsAndEscapedQuotes() {
+        assertThat(splitLine("\"D,001\",\"say \"\"hi\"\"\",100"))
+                .containsExactly("D,001", "say \"hi\"", "100");
+        assertThat(splitLine("\"\",x")).containsExactly("", "x");
+    }
+
+    @Test
+    void keepsWhitespaceForCallerToTrim() {
+        assertThat(splitLine(" D001 , 100 ")).containsExactly(" D001 ", " 100 ");
+    }
+
+    @Test
+    void mapsChineseHeaderColumns() {
+        int[] columns = parseHeader("派工单号,设备编号,计划产量,创建人");
+
+        assertThat(columns[ORDER_NO]).isEqualTo(0);
+        assertThat(columns[DEVICE_CODE]).isEqualTo(1);
+        assertThat(columns[PLANNED_QUANTITY]).isEqualTo(2);
+        assertThat(columns[CREATED_BY]).isEqualTo(3);
+    }
+
+    @Test
+    void mapsEnglishHeaderColumnsCaseInsensitivelyInAnyOrder() {
+        int[] columns = parseHeader(" PlannedQuantity ,remark,DEVICECODE");
+
+        assertThat(columns[PLANNED_QUANTITY]).isEqualTo(0);
+        assertThat(columns[DEVICE_CODE]).isEqualTo(2);
+        assertThat(columns[ORDER_NO]).isEqualTo(-1);
+        assertThat(columns[CREATED_BY]).isEqualTo(-1);
+    }
+
+    @Test
+    void stripsUtf8ByteOrderMark() {
+        int[] columns = parseHeader("\uFEFF设备编号,计划产量");
+
+        assertThat(columns[DEVICE_CODE]).isEqualTo(0);
+        assertThat(columns[PLANNED_QUANTITY]).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsHeaderWithoutRequiredColumns() {
+        assertThatThrownBy(() -> parseHeader("派工单号,设备编号"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> parseHeader("计划产量"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
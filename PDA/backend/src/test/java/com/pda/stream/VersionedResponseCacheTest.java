@@ -0,0 +1,79 @@
+package com.pda.stream;
+
+import com.pda.stream.StateChangeEvent.Kind;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 按数据类型版本缓存的概览响应测试
+ *
+ * @author PDA System
+ * @version 1.0.0
+ * @since 2025-01-08
+ */
+class VersionedResponseCacheTest {
+
+    private final FleetVersion fleetVersion = new FleetVersion();
+
+    private final VersionedResponseCache cache = new VersionedResponseCache(fleetVersion, Jackson2ObjectMapperBuilder.json().build());
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void otherKindChangesKeepEtagAndCachedBody() {
+        ResponseEntity<byte[]> first = respondDeviceStatistics(null);
+
+        fleetVersion.onStateChange(StateChangeEvent.of(Kind.WORK_ORDER, 1L));
+        fleetVersion.onStateChange(StateChangeEvent.all(Kind.MAINTENANCE));
+        ResponseEntity<byte[]> second = respondDeviceStatistics(first.getHeaders().getETag());
+
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(second.getHeaders().getETag()).isEqualTo(first.getHeaders().getETag());
+        assertThat(respondDeviceStatistics(null).getBody()).isEqualTo(first.getBody());
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void dependedKindChangeRefreshesEtag() {
+        ResponseEntity<byte[]> first = respondDeviceStatistics(null);
+
+        fleetVersion.onStateChange(StateChangeEvent.of(Kind.DEVICE, 1L));
+        ResponseEntity<byte[]> second = respondDeviceStatistics(first.getHeaders().getETag());
+
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(second.getHeaders().getETag()).isNotEqualTo(first.getHeaders().getETag());
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void anyOfSeveralDependedKindsRefreshesEtag() {
+        String etag = cache.respond("devices/overview", null, Collections::emptyList,
+                Kind.DEVICE, Kind.WORK_ORDER).getHeaders().getETag();
+
+        fleetVersion.onStateChange(StateChangeEvent.of(Kind.WORK_ORDER, 1L));
+
+        assertThat(cache.respond("devices/overview", etag, Collections::emptyList,
+                Kind.DEVICE, Kind.WORK_ORDER).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void rejectsResponseWithoutDependencies() {
+        assertThatThrownBy(() -> cache.respond("statistics/devices", null, Collections::emptyMap))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private ResponseEntity<byte[]> respondDeviceStatistics(String ifNoneMatch) {
+        return cache.respond("statistics/devices", ifNoneMatch, () -> {
+            loads.incrementAndGet();
+            return Collections.singletonMap("total", 3L);
+        }, Kind.DEVICE);
+    }
+}